@@ -1,5 +1,6 @@
 plugins {
   id("java")
+  alias(libs.plugins.jmh)
 }
 
 group = "com.asyncant.selenium"
@@ -25,3 +26,11 @@ dependencies {
 tasks.test {
   useJUnitPlatform()
 }
+
+jmh {
+  // JSON, so results of different runs can be compared to catch regressions.
+  resultFormat.set("JSON")
+  resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+  // Run a subset with e.g. -Pjmh.includes=FindElementBenchmark
+  findProperty("jmh.includes")?.let { includes.set(listOf(it.toString())) }
+}
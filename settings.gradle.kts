@@ -16,6 +16,8 @@ dependencyResolutionManagement {
       library("seleniumChromeDriver", "org.seleniumhq.selenium:selenium-chrome-driver:4.31.0")
 
       library("jsoup", "org.jsoup:jsoup:1.18.3")
+
+      plugin("jmh", "me.champeau.jmh").version("0.7.2")
     }
   }
 }
@@ -0,0 +1,51 @@
+package com.asyncant.selenium;
+
+import com.asyncant.selenium.benchmark.BenchmarkPages;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Element;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the text extraction behind {@code getText()} for a single row and for the whole table. It's called
+ * directly, since the driver memoizes the text per element and would only be measured the first time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GetTextBenchmark {
+  @Param({"small", "medium", "huge"})
+  public String size;
+
+  @Param({"false", "true"})
+  public boolean renderedText;
+
+  private final FormState formState = new FormState();
+  private Element row;
+  private Element table;
+
+  @Setup
+  public void setUp() {
+    var document = Jsoup.parse(BenchmarkPages.page(BenchmarkPages.rows(size)));
+    row = document.getElementById("last");
+    table = document.selectFirst("table");
+  }
+
+  @Benchmark
+  public String getTextOfRow() {
+    return text(row);
+  }
+
+  @Benchmark
+  public String getTextOfTable() {
+    return text(table);
+  }
+
+  private String text(Element element) {
+    return renderedText ? RenderedText.text(element, formState) : TextExtractor.text(element, formState, false);
+  }
+}
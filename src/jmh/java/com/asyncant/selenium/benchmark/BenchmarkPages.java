@@ -0,0 +1,66 @@
+package com.asyncant.selenium.benchmark;
+
+import com.asyncant.selenium.transport.InProcessTransport;
+import com.asyncant.selenium.transport.TransportRequest;
+import com.asyncant.selenium.transport.TransportResponse;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Generated pages for the benchmarks, served in-process so the numbers don't include a socket.
+ */
+public final class BenchmarkPages {
+  static final String URL = "http://localhost:8080/";
+
+  private BenchmarkPages() {
+  }
+
+  /**
+   * The number of table rows of the small, medium and huge documents, roughly 1 KB, 100 KB and 5 MB.
+   */
+  public static int rows(String size) {
+    return switch (size) {
+      case "small" -> 10;
+      case "medium" -> 1_000;
+      case "huge" -> 50_000;
+      default -> throw new IllegalArgumentException("Unknown size: " + size);
+    };
+  }
+
+  /**
+   * A table of rows with links, classes and named inputs, followed by a form posting to {@code /submit}. Locators for
+   * {@code last} find the last row, so searches that walk the document walk all of it.
+   */
+  public static String page(int rows) {
+    var html = new StringBuilder(rows * 160 + 512);
+    html.append("<!DOCTYPE html><html><head><title>Benchmark</title></head><body><table>");
+    for (int row = 0; row < rows; row++) {
+      String id = row == rows - 1 ? "last" : "row" + row;
+      html.append("<tr id='").append(id).append("' class='row ").append(id).append("'>")
+        .append("<td><a href='/item/").append(row).append("'>Item ").append(id).append("</a></td>")
+        .append("<td><input name='").append(id).append("' value='").append(row).append("'></td></tr>");
+    }
+    html.append("</table><form id='form' action='/submit' method='post'><input name='q' value='query'>")
+      .append("<input type='checkbox' name='agree' checked><input type='submit' id='submit'></form></body></html>");
+    return html.toString();
+  }
+
+  /**
+   * Serves the page at {@code /} and a small result page for form submissions at {@code /submit}.
+   */
+  static InProcessTransport transport(String page) {
+    return new InProcessTransport()
+      .registerTransport("/", request -> htmlResponse(request, page))
+      .registerTransport("/submit", request -> htmlResponse(request,
+        "<!DOCTYPE html><html><head><title>Submitted</title></head><body><p id='result'>OK</p></body></html>"));
+  }
+
+  private static TransportResponse htmlResponse(TransportRequest request, String html) {
+    return new TransportResponse(200, request.uri(), Map.of("Content-Type", List.of("text/html;charset=UTF-8")),
+      new ByteArrayInputStream(html.getBytes(UTF_8)));
+  }
+}
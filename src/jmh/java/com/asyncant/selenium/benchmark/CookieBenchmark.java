@@ -0,0 +1,48 @@
+package com.asyncant.selenium.benchmark;
+
+import com.asyncant.selenium.JsoupWebDriver;
+import org.openjdk.jmh.annotations.*;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.WebDriver;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cookie operations of {@link WebDriver.Options} with a handful of cookies in the store.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CookieBenchmark {
+  private static final int COOKIES = 10;
+
+  private WebDriver.Options options;
+
+  @Setup
+  public void setUp() {
+    WebDriver driver = new JsoupWebDriver(BenchmarkPages.transport(BenchmarkPages.page(10)));
+    driver.get(BenchmarkPages.URL);
+    options = driver.manage();
+    for (int i = 0; i < COOKIES; i++) options.addCookie(new Cookie("cookie" + i, "value" + i));
+  }
+
+  @Benchmark
+  public Set<Cookie> getCookies() {
+    return options.getCookies();
+  }
+
+  @Benchmark
+  public Cookie getCookieNamed() {
+    return options.getCookieNamed("cookie" + (COOKIES - 1));
+  }
+
+  @Benchmark
+  public void addAndDeleteCookie() {
+    options.addCookie(new Cookie("added", "value"));
+    options.deleteCookieNamed("added");
+  }
+}
@@ -0,0 +1,45 @@
+package com.asyncant.selenium.benchmark;
+
+import com.asyncant.selenium.JsoupWebDriver;
+import org.openjdk.jmh.annotations.*;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reading DOM properties of elements of a loaded page. Since {@code getText()} is memoized per element, its
+ * text extraction is measured by {@link com.asyncant.selenium.GetTextBenchmark} instead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ElementBenchmark {
+  @Param({"small", "medium", "huge"})
+  public String size;
+
+  private WebElement input;
+  private WebElement link;
+
+  @Setup
+  public void setUp() {
+    WebDriver driver = new JsoupWebDriver(BenchmarkPages.transport(BenchmarkPages.page(BenchmarkPages.rows(size))));
+    driver.get(BenchmarkPages.URL);
+    input = driver.findElement(By.name("last"));
+    link = driver.findElement(By.linkText("Item last"));
+  }
+
+  @Benchmark
+  public String getDomPropertyValue() {
+    return input.getDomProperty("value");
+  }
+
+  @Benchmark
+  public String getDomPropertyHref() {
+    return link.getDomProperty("href");
+  }
+}
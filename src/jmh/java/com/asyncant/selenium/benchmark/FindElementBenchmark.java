@@ -0,0 +1,55 @@
+package com.asyncant.selenium.benchmark;
+
+import com.asyncant.selenium.JsoupWebDriver;
+import org.openjdk.jmh.annotations.*;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@code findElement} for every locator strategy, finding the last row of documents of different sizes.
+ * Each locator is evaluated from the root of an already loaded page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FindElementBenchmark {
+  @Param({"small", "medium", "huge"})
+  public String size;
+
+  @Param({"id", "name", "className", "tagName", "cssSelector", "linkText", "partialLinkText", "xpath",
+    "xpathFallback"})
+  public String strategy;
+
+  private WebDriver driver;
+  private By locator;
+
+  @Setup
+  public void setUp() {
+    driver = new JsoupWebDriver(BenchmarkPages.transport(BenchmarkPages.page(BenchmarkPages.rows(size))));
+    driver.get(BenchmarkPages.URL);
+    locator = switch (strategy) {
+      case "id" -> By.id("last");
+      case "name" -> By.name("last");
+      case "className" -> By.className("last");
+      case "tagName" -> By.tagName("form");
+      case "cssSelector" -> By.cssSelector("tr#last > td input");
+      case "linkText" -> By.linkText("Item last");
+      case "partialLinkText" -> By.partialLinkText("last");
+      case "xpath" -> By.xpath("//tr[@id='last']/td/input");
+      // The parent axis isn't evaluated natively, so this goes through the W3C DOM.
+      case "xpathFallback" -> By.xpath("//input[@name='last']/..");
+      default -> throw new IllegalArgumentException("Unknown strategy: " + strategy);
+    };
+  }
+
+  @Benchmark
+  public WebElement findElement() {
+    return driver.findElement(locator);
+  }
+}
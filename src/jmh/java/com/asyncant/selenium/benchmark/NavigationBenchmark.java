@@ -0,0 +1,43 @@
+package com.asyncant.selenium.benchmark;
+
+import com.asyncant.selenium.JsoupWebDriver;
+import org.openjdk.jmh.annotations.*;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures loading a page with {@code get()} and submitting a form by clicking its submit button, both against an
+ * in-process server.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NavigationBenchmark {
+  @Param({"small", "medium", "huge"})
+  public String size;
+
+  private WebDriver driver;
+
+  @Setup
+  public void setUp() {
+    driver = new JsoupWebDriver(BenchmarkPages.transport(BenchmarkPages.page(BenchmarkPages.rows(size))));
+  }
+
+  @Benchmark
+  public String get() {
+    driver.get(BenchmarkPages.URL);
+    return driver.getTitle();
+  }
+
+  @Benchmark
+  public String clickSubmit() {
+    driver.get(BenchmarkPages.URL);
+    driver.findElement(By.id("submit")).click();
+    return driver.getTitle();
+  }
+}
@@ -0,0 +1,91 @@
+package com.asyncant.selenium.benchmark;
+
+import com.asyncant.selenium.JsoupWebDriver;
+import com.asyncant.selenium.transport.HttpClientTransport;
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.*;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Measures the time from {@code get()} until the page can be queried for multi-megabyte pages, comparing a buffered
+ * transport, which reads the whole body before parsing, to a streaming one, which parses while the body arrives.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StreamingParseBenchmark {
+  private static final int CHUNK_SIZE = 16 * 1024;
+
+  @Param({"1", "4", "16"})
+  public int megabytes;
+
+  @Param({"true", "false"})
+  public boolean streaming;
+
+  private HttpServer server;
+  private HttpClientTransport transport;
+  private WebDriver driver;
+  private String url;
+
+  @Setup
+  public void setUp() throws IOException {
+    byte[] page = generatePage(megabytes * 1024 * 1024);
+
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.createContext("/", exchange -> {
+      exchange.getResponseHeaders().put("Content-Type", List.of("text/html;charset=UTF-8"));
+      // Chunked, so the body arrives in pieces like it would from an app server rendering the page.
+      exchange.sendResponseHeaders(200, 0);
+      try (OutputStream os = exchange.getResponseBody()) {
+        for (int offset = 0; offset < page.length; offset += CHUNK_SIZE) {
+          os.write(page, offset, Math.min(CHUNK_SIZE, page.length - offset));
+          os.flush();
+        }
+      }
+    });
+    server.start();
+
+    url = "http://localhost:" + server.getAddress().getPort() + "/large.html";
+    transport = new HttpClientTransport(streaming);
+    driver = new JsoupWebDriver(transport);
+  }
+
+  @TearDown
+  public void tearDown() {
+    driver.quit();
+    // Passed in, so the driver leaves it open.
+    transport.close();
+    server.stop(0);
+  }
+
+  @Benchmark
+  public WebElement timeToPage() {
+    driver.get(url);
+    return driver.findElement(By.id("last"));
+  }
+
+  private static byte[] generatePage(int size) {
+    var html = new StringBuilder(size + 256);
+    html.append("<!DOCTYPE html><html><head><title>Large page</title></head><body><table>");
+    for (int row = 0; html.length() < size; row++) {
+      html.append("<tr class='row'><td><a href='/item/").append(row).append("'>Item ").append(row)
+        .append("</a></td><td><input name='quantity").append(row).append("' value='1'></td></tr>");
+    }
+    html.append("</table><p id='last'>End</p></body></html>");
+    return html.toString().getBytes(UTF_8);
+  }
+}
@@ -0,0 +1,97 @@
+package com.asyncant.selenium.benchmark;
+
+import com.asyncant.selenium.JsoupWebDriver;
+import com.asyncant.selenium.transport.HttpClientTransport;
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.*;
+import org.openqa.selenium.By;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A load test of many concurrent sessions, each a driver on its own virtual thread, against a local server. Every
+ * session loads a page, reads it and submits its form. The {@code pages} counter reports the throughput in pages per
+ * second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class VirtualThreadLoadBenchmark {
+  private static final byte[] PAGE = """
+    <!DOCTYPE html><html><head><title>Load</title></head><body>
+    <h1 id="greeting">Hello</h1>
+    <form action="/submitted" method="post"><input name="user" value="load"><input type="submit" id="submit"></form>
+    </body></html>""".getBytes(UTF_8);
+
+  @Param({"100", "1000", "10000"})
+  public int sessions;
+
+  private HttpServer server;
+  private ExecutorService serverExecutor;
+  private HttpClientTransport transport;
+  private String url;
+
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  @State(Scope.Thread)
+  public static class Counters {
+    public long pages;
+  }
+
+  @Setup
+  public void setUp() throws IOException {
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+    serverExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    server.setExecutor(serverExecutor);
+    server.createContext("/", exchange -> {
+      exchange.getRequestBody().readAllBytes();
+      exchange.getResponseHeaders().put("Content-Type", List.of("text/html;charset=UTF-8"));
+      exchange.sendResponseHeaders(200, PAGE.length);
+      try (OutputStream os = exchange.getResponseBody()) {
+        os.write(PAGE);
+      }
+    });
+    server.start();
+
+    url = "http://localhost:" + server.getAddress().getPort() + "/";
+    // One transport for all sessions, like a driver pool does, so they share the connection pool.
+    transport = new HttpClientTransport();
+  }
+
+  @TearDown
+  public void tearDown() {
+    transport.close();
+    server.stop(0);
+    serverExecutor.close();
+  }
+
+  @Benchmark
+  public void sessions(Counters counters) throws Exception {
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      List<Future<Integer>> results = new ArrayList<>(sessions);
+      for (int i = 0; i < sessions; i++) {
+        results.add(executor.submit(() -> {
+          var driver = new JsoupWebDriver(transport);
+          driver.get(url);
+          driver.findElement(By.id("greeting")).getText();
+          driver.findElement(By.id("submit")).click();
+          return 2;
+        }));
+      }
+      for (Future<Integer> result : results) counters.pages += result.get();
+    }
+  }
+}
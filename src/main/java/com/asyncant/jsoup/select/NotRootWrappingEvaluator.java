@@ -20,4 +20,8 @@ public class NotRootWrappingEvaluator extends Evaluator {
     if (root == element) return false;
     return wrapped.matches(root, element);
   }
+
+  public Evaluator wrapped() {
+    return wrapped;
+  }
 }
@@ -0,0 +1,504 @@
+package com.asyncant.jsoup.select;
+
+import org.jsoup.nodes.DataNode;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.NodeTraversor;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Matches elements by an XPath expression directly on the jsoup tree, without converting it to a W3C DOM. Only the
+ * subset commonly used in locators is supported: location paths with the child, descendant, descendant-or-self and
+ * self axes, including the {@code //} and {@code .} abbreviations, and predicates made of attribute and text
+ * comparisons, {@code contains()}, {@code starts-with()}, {@code normalize-space()}, {@code not()}, {@code and} and
+ * {@code or}. Positional predicates, like {@code [2]} or {@code [last()]}, are supported on child steps other than
+ * {@code node()}.
+ * <p>
+ * {@link #compile(String)} returns null for any other expression. Relative paths are matched from the root the
+ * evaluator is selected from, absolute paths must be selected from the document.
+ */
+@NullMarked
+public class XPathEvaluator extends Evaluator {
+  private final String xpath;
+  private final boolean absolute;
+  private final List<Step> steps;
+
+  private XPathEvaluator(String xpath, boolean absolute, List<Step> steps) {
+    this.xpath = xpath;
+    this.absolute = absolute;
+    this.steps = steps;
+  }
+
+  /**
+   * Returns the evaluator for the expression, or null if it's not in the supported subset.
+   */
+  public static @Nullable XPathEvaluator compile(String xpath) {
+    try {
+      return new Parser(xpath).parse();
+    } catch (Unsupported e) {
+      return null;
+    }
+  }
+
+  public boolean isAbsolute() {
+    return absolute;
+  }
+
+  @Override
+  public boolean matches(Element root, Element element) {
+    if (element instanceof Document) return false;
+    return reaches(root, element, steps.size() - 1);
+  }
+
+  /**
+   * Returns whether the node matches the step and the steps before it lead there from the root.
+   */
+  private boolean reaches(Element root, Element node, int index) {
+    if (index < 0) return node == root;
+
+    var step = steps.get(index);
+    if (!step.matches(node)) return false;
+
+    return switch (step.axis()) {
+      case CHILD -> {
+        var parent = node.parent();
+        yield parent != null && reaches(root, parent, index - 1);
+      }
+      case SELF -> reaches(root, node, index - 1);
+      case DESCENDANT -> reachesAncestor(root, node.parent(), index - 1);
+      case DESCENDANT_OR_SELF -> reachesAncestor(root, node, index - 1);
+    };
+  }
+
+  private boolean reachesAncestor(Element root, @Nullable Element ancestor, int index) {
+    for (; ancestor != null; ancestor = ancestor.parent()) {
+      if (reaches(root, ancestor, index)) return true;
+    }
+    return false;
+  }
+
+  @Override
+  public String toString() {
+    return xpath;
+  }
+
+  private enum Axis {
+    CHILD, SELF, DESCENDANT, DESCENDANT_OR_SELF
+  }
+
+  /**
+   * A location step. A null name matches any element, unless {@code anyNode} is set, which also matches the document.
+   */
+  private record Step(Axis axis, @Nullable String name, boolean anyNode, List<Predicate> predicates) {
+    boolean matches(Element node) {
+      return matchesTest(node) && matchesPredicates(node, predicates.size());
+    }
+
+    private boolean matchesTest(Element node) {
+      if (anyNode) return true;
+      if (node instanceof Document) return false;
+      return name == null || node.tagName().equals(name);
+    }
+
+    /**
+     * Returns whether the node matches the first {@code count} predicates. Positions are counted among the siblings
+     * that match the node test and the predicates before, like XPath does for the child axis.
+     */
+    private boolean matchesPredicates(Element node, int count) {
+      for (int i = 0; i < count; i++) {
+        boolean matches = switch (predicates.get(i)) {
+          case Position position -> position(node, i) == position.position();
+          case Last ignored -> isLast(node, i);
+          case Condition condition -> condition.test(node);
+        };
+        if (!matches) return false;
+      }
+      return true;
+    }
+
+    private int position(Element node, int predicate) {
+      int position = 1;
+      for (var sibling = node.previousElementSibling(); sibling != null; sibling = sibling.previousElementSibling()) {
+        if (matchesTest(sibling) && matchesPredicates(sibling, predicate)) position++;
+      }
+      return position;
+    }
+
+    private boolean isLast(Element node, int predicate) {
+      for (var sibling = node.nextElementSibling(); sibling != null; sibling = sibling.nextElementSibling()) {
+        if (matchesTest(sibling) && matchesPredicates(sibling, predicate)) return false;
+      }
+      return true;
+    }
+  }
+
+  private sealed interface Predicate permits Position, Last, Condition {
+  }
+
+  private record Position(int position) implements Predicate {
+  }
+
+  private record Last() implements Predicate {
+  }
+
+  @FunctionalInterface
+  private non-sealed interface Condition extends Predicate {
+    boolean test(Element element);
+  }
+
+  /**
+   * A value in a predicate, either a node-set, like an attribute or the text nodes, or a single string.
+   */
+  private record Operand(boolean nodeSet, Function<Element, List<String>> values) {
+    String string(Element element) {
+      var values = values().apply(element);
+      return values.isEmpty() ? "" : values.getFirst();
+    }
+
+    boolean isTrue(Element element) {
+      return nodeSet ? !values().apply(element).isEmpty() : !string(element).isEmpty();
+    }
+
+    static Operand ofString(Function<Element, String> value) {
+      return new Operand(false, element -> List.of(value.apply(element)));
+    }
+  }
+
+  /**
+   * Returns the string value of an element, the concatenation of all the text it contains.
+   */
+  private static String stringValue(Element element) {
+    var value = new StringBuilder();
+    NodeTraversor.traverse((node, depth) -> value.append(text(node)), element);
+    return value.toString();
+  }
+
+  /**
+   * Returns the text nodes of an element as the W3C DOM would have them, which includes script and style data.
+   */
+  private static List<String> textNodes(Element element) {
+    List<String> texts = new ArrayList<>();
+    for (Node child : element.childNodes()) {
+      if (child instanceof TextNode || child instanceof DataNode) texts.add(text(child));
+    }
+    return texts;
+  }
+
+  private static String text(Node node) {
+    if (node instanceof TextNode textNode) return textNode.getWholeText();
+    if (node instanceof DataNode dataNode) return dataNode.getWholeData();
+    return "";
+  }
+
+  private static String normalizeSpace(String value) {
+    var normalized = new StringBuilder(value.length());
+    boolean space = false;
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+        space = !normalized.isEmpty();
+      } else {
+        if (space) normalized.append(' ');
+        normalized.append(c);
+        space = false;
+      }
+    }
+    return normalized.toString();
+  }
+
+  /**
+   * Thrown by the parser for expressions outside the supported subset.
+   */
+  private static class Unsupported extends RuntimeException {
+    Unsupported() {
+      super(null, null, false, false);
+    }
+  }
+
+  /**
+   * A recursive descent parser for the supported subset.
+   */
+  private static class Parser {
+    private final String xpath;
+    private int pos;
+
+    Parser(String xpath) {
+      this.xpath = xpath;
+    }
+
+    XPathEvaluator parse() {
+      List<Step> steps = new ArrayList<>();
+      boolean absolute = false;
+      if (accept("//")) {
+        absolute = true;
+        steps.add(descendantOrSelf());
+      } else if (accept("/")) {
+        absolute = true;
+      }
+
+      steps.add(step());
+      while (true) {
+        if (accept("//")) {
+          steps.add(descendantOrSelf());
+        } else if (!accept("/")) {
+          break;
+        }
+        steps.add(step());
+      }
+
+      skipSpace();
+      if (pos != xpath.length()) throw new Unsupported();
+      return new XPathEvaluator(xpath, absolute, List.copyOf(steps));
+    }
+
+    private static Step descendantOrSelf() {
+      return new Step(Axis.DESCENDANT_OR_SELF, null, true, List.of());
+    }
+
+    private Step step() {
+      if (accept("..")) throw new Unsupported();
+      if (accept(".")) return new Step(Axis.SELF, null, true, List.of());
+
+      var axis = Axis.CHILD;
+      int start = pos;
+      String name = name();
+      if (name != null && accept("::")) {
+        axis = switch (name) {
+          case "child" -> Axis.CHILD;
+          case "self" -> Axis.SELF;
+          case "descendant" -> Axis.DESCENDANT;
+          case "descendant-or-self" -> Axis.DESCENDANT_OR_SELF;
+          default -> throw new Unsupported();
+        };
+        start = pos;
+        name = name();
+      }
+
+      boolean anyNode = false;
+      if (name == null) {
+        pos = start;
+        if (!accept("*")) throw new Unsupported();
+      } else if (accept("(")) {
+        // Only node() selects elements, other node tests like text() select other kinds of nodes.
+        if (!name.equals("node")) throw new Unsupported();
+        expect(")");
+        name = null;
+        anyNode = true;
+      }
+
+      List<Predicate> predicates = new ArrayList<>();
+      while (accept("[")) {
+        var predicate = predicate();
+        // Positions count element siblings only, while node() also counts text and comment nodes.
+        if (!(predicate instanceof Condition) && (axis != Axis.CHILD || anyNode)) throw new Unsupported();
+        predicates.add(predicate);
+        expect("]");
+      }
+      return new Step(axis, name, anyNode, List.copyOf(predicates));
+    }
+
+    private Predicate predicate() {
+      int start = pos;
+      var number = number();
+      if (number != null && peek("]")) return new Position(number);
+      pos = start;
+
+      if (acceptFunction("last")) {
+        expect(")");
+        if (peek("]")) return new Last();
+        throw new Unsupported();
+      }
+      if (acceptFunction("position")) {
+        expect(")");
+        expect("=");
+        var position = number();
+        if (position == null || !peek("]")) throw new Unsupported();
+        return new Position(position);
+      }
+      return or();
+    }
+
+    private Condition or() {
+      var condition = and();
+      while (acceptKeyword("or")) {
+        var left = condition;
+        var right = and();
+        condition = element -> left.test(element) || right.test(element);
+      }
+      return condition;
+    }
+
+    private Condition and() {
+      var condition = unary();
+      while (acceptKeyword("and")) {
+        var left = condition;
+        var right = unary();
+        condition = element -> left.test(element) && right.test(element);
+      }
+      return condition;
+    }
+
+    private Condition unary() {
+      if (accept("(")) {
+        var condition = or();
+        expect(")");
+        return condition;
+      }
+      if (acceptFunction("not")) {
+        var condition = or();
+        expect(")");
+        return element -> !condition.test(element);
+      }
+      if (acceptFunction("contains")) {
+        var operands = arguments();
+        return element -> operands[0].string(element).contains(operands[1].string(element));
+      }
+      if (acceptFunction("starts-with")) {
+        var operands = arguments();
+        return element -> operands[0].string(element).startsWith(operands[1].string(element));
+      }
+
+      var left = operand();
+      boolean equals = accept("=");
+      if (!equals && !accept("!=")) return left::isTrue;
+
+      var right = operand();
+      return element -> {
+        // Comparisons with node-sets are true if any of the nodes compares true.
+        for (String leftValue : left.values().apply(element)) {
+          for (String rightValue : right.values().apply(element)) {
+            if (leftValue.equals(rightValue) == equals) return true;
+          }
+        }
+        return false;
+      };
+    }
+
+    private Operand[] arguments() {
+      var first = operand();
+      expect(",");
+      var second = operand();
+      expect(")");
+      return new Operand[] {first, second};
+    }
+
+    private Operand operand() {
+      if (accept("@")) {
+        var name = name();
+        if (name == null) throw new Unsupported();
+        return new Operand(true, element -> element.attributes().hasKey(name)
+          ? List.of(element.attributes().get(name))
+          : List.of());
+      }
+      if (accept(".")) return new Operand(true, element -> List.of(stringValue(element)));
+
+      var literal = literal();
+      if (literal != null) return Operand.ofString(element -> literal);
+
+      if (acceptFunction("text")) {
+        expect(")");
+        return new Operand(true, XPathEvaluator::textNodes);
+      }
+      if (acceptFunction("normalize-space")) {
+        if (accept(")")) return Operand.ofString(element -> normalizeSpace(stringValue(element)));
+        var operand = operand();
+        expect(")");
+        return Operand.ofString(element -> normalizeSpace(operand.string(element)));
+      }
+      if (acceptFunction("string")) {
+        if (accept(")")) return Operand.ofString(XPathEvaluator::stringValue);
+        var operand = operand();
+        expect(")");
+        return Operand.ofString(operand::string);
+      }
+      throw new Unsupported();
+    }
+
+    private @Nullable String literal() {
+      skipSpace();
+      if (pos == xpath.length()) return null;
+
+      char quote = xpath.charAt(pos);
+      if (quote != '\'' && quote != '"') return null;
+
+      int end = xpath.indexOf(quote, pos + 1);
+      if (end == -1) throw new Unsupported();
+      var literal = xpath.substring(pos + 1, end);
+      pos = end + 1;
+      return literal;
+    }
+
+    private @Nullable Integer number() {
+      skipSpace();
+      int start = pos;
+      while (pos < xpath.length() && Character.isDigit(xpath.charAt(pos))) pos++;
+      if (start == pos) return null;
+      // Fractions and other numeric expressions aren't supported.
+      if (pos < xpath.length() && xpath.charAt(pos) == '.') throw new Unsupported();
+
+      try {
+        return Integer.parseInt(xpath, start, pos, 10);
+      } catch (NumberFormatException e) {
+        throw new Unsupported();
+      }
+    }
+
+    private @Nullable String name() {
+      skipSpace();
+      int start = pos;
+      if (pos < xpath.length() && (Character.isLetter(xpath.charAt(pos)) || xpath.charAt(pos) == '_')) {
+        pos++;
+        while (pos < xpath.length() && isNameChar(xpath.charAt(pos))) pos++;
+      }
+      if (start == pos) return null;
+      // Qualified names would need namespace handling.
+      if (pos < xpath.length() && xpath.charAt(pos) == ':' && !xpath.startsWith("::", pos)) throw new Unsupported();
+      return xpath.substring(start, pos);
+    }
+
+    private static boolean isNameChar(char c) {
+      return Character.isLetterOrDigit(c) || c == '_' || c == '-' || c == '.';
+    }
+
+    private boolean acceptFunction(String function) {
+      int start = pos;
+      if (function.equals(name()) && accept("(")) return true;
+      pos = start;
+      return false;
+    }
+
+    private boolean acceptKeyword(String keyword) {
+      int start = pos;
+      if (keyword.equals(name())) return true;
+      pos = start;
+      return false;
+    }
+
+    private boolean peek(String token) {
+      skipSpace();
+      return xpath.startsWith(token, pos);
+    }
+
+    private boolean accept(String token) {
+      if (!peek(token)) return false;
+      pos += token.length();
+      return true;
+    }
+
+    private void expect(String token) {
+      if (!accept(token)) throw new Unsupported();
+    }
+
+    private void skipSpace() {
+      while (pos < xpath.length() && Character.isWhitespace(xpath.charAt(pos))) pos++;
+    }
+  }
+}
@@ -0,0 +1,360 @@
+package com.asyncant.selenium;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.QueryParser;
+import org.jsoup.select.Selector;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A lightweight cascade for the few CSS properties tests commonly assert on: {@code display}, {@code visibility},
+ * {@code color} and {@code font-weight}. The {@code <style>} elements of the page are parsed once, when first needed,
+ * and their selectors compiled to jsoup evaluators through the shared {@link EvaluatorCache}. Computed values are
+ * cached per element.
+ * <p>
+ * Rules are ordered by importance, then the {@code style} attribute, then specificity and then source order. Selectors
+ * jsoup can't evaluate, like {@code :hover}, are skipped, as are {@code @media print} blocks and linked style sheets.
+ * Colors are returned as {@code rgba(r, g, b, a)} and font weights as numbers, like browsers do.
+ */
+@NullMarked
+final class CssCascade {
+  private static final List<String> PROPERTIES = List.of("display", "visibility", "color", "font-weight");
+  private static final int DISPLAY = 0;
+  private static final int COLOR = 2;
+  private static final int FONT_WEIGHT = 3;
+  private static final List<String> INITIAL_VALUES = List.of("inline", "visible", "rgba(0, 0, 0, 1)", "400");
+  private static final Map<String, String> TABLE_DISPLAY = Map.of("table", "table", "tr", "table-row",
+    "td", "table-cell", "th", "table-cell", "thead", "table-header-group", "tbody", "table-row-group",
+    "tfoot", "table-footer-group", "caption", "table-caption", "col", "table-column", "colgroup", "table-column-group");
+  private static final Set<String> BOLD = Set.of("b", "strong", "th", "h1", "h2", "h3", "h4", "h5", "h6");
+  private static final Map<String, String> NAMED_COLORS = Map.ofEntries(Map.entry("black", "0, 0, 0"),
+    Map.entry("white", "255, 255, 255"), Map.entry("red", "255, 0, 0"), Map.entry("green", "0, 128, 0"),
+    Map.entry("blue", "0, 0, 255"), Map.entry("yellow", "255, 255, 0"), Map.entry("gray", "128, 128, 128"),
+    Map.entry("grey", "128, 128, 128"), Map.entry("silver", "192, 192, 192"), Map.entry("maroon", "128, 0, 0"),
+    Map.entry("navy", "0, 0, 128"), Map.entry("purple", "128, 0, 128"), Map.entry("teal", "0, 128, 128"),
+    Map.entry("olive", "128, 128, 0"), Map.entry("lime", "0, 255, 0"), Map.entry("aqua", "0, 255, 255"),
+    Map.entry("cyan", "0, 255, 255"), Map.entry("fuchsia", "255, 0, 255"), Map.entry("magenta", "255, 0, 255"),
+    Map.entry("orange", "255, 165, 0"));
+
+  private final Document document;
+  private final List<Rule> rules = new ArrayList<>();
+  private final ElementStore<String[]> computed = new ElementStore<>();
+  private int openBatches;
+
+  CssCascade(Document document) {
+    this.document = document;
+    for (Element style : document.getElementsByTag("style")) parseStyleSheet(stripComments(style.data()));
+  }
+
+  /**
+   * Returns the computed value of the property for the element, or an empty string for properties that aren't
+   * supported.
+   */
+  String value(Element element, String property) {
+    int index = PROPERTIES.indexOf(property.toLowerCase(Locale.ROOT));
+    return index == -1 ? "" : computed(element)[index];
+  }
+
+  private String[] computed(Element element) {
+    var values = computed.get(element);
+    if (values != null) return values;
+
+    // Ancestors are computed first, iteratively since documents can be deeply nested.
+    var uncomputed = new ArrayDeque<Element>();
+    String @Nullable [] parentValues = null;
+    for (Element ancestor = element; ancestor != null; ancestor = ancestor.parent()) {
+      parentValues = computed.get(ancestor);
+      if (parentValues != null) break;
+      uncomputed.push(ancestor);
+    }
+    try {
+      while (!uncomputed.isEmpty()) {
+        var next = uncomputed.pop();
+        values = compute(next, parentValues);
+        computed.put(next, values);
+        parentValues = values;
+      }
+    } finally {
+      if (openBatches == 0) clearMemos();
+    }
+    return values;
+  }
+
+  /**
+   * Starts computing the values of many elements, e.g. all of the page. What the evaluators memoized about the page is
+   * kept until the batch is closed, rather than cleared after each element.
+   */
+  Batch batch() {
+    openBatches++;
+    return () -> {
+      if (--openBatches == 0) clearMemos();
+    };
+  }
+
+  private void clearMemos() {
+    for (Rule rule : rules) EvaluatorCache.clearMemo(rule.evaluator());
+  }
+
+  private String[] compute(Element element, String @Nullable [] parentValues) {
+    var declared = new Declarations();
+    for (Rule rule : rules) {
+      if (rule.evaluator().matches(document, element)) declared.add(rule.declarations(), rule.priority());
+    }
+    if (element.hasAttr("style")) declared.add(parseDeclarations(element.attr("style")), Rule.INLINE_PRIORITY);
+
+    var values = new String[PROPERTIES.size()];
+    for (int i = 0; i < values.length; i++) {
+      var value = declared.values[i];
+      if (value == null) value = defaultValue(element, i);
+      if (value == null || value.equals("unset")) value = i == DISPLAY ? "initial" : "inherit";
+      var parentValue = parentValues == null ? null : parentValues[i];
+      values[i] = switch (value) {
+        case "inherit" -> parentValue != null ? parentValue : INITIAL_VALUES.get(i);
+        case "initial" -> INITIAL_VALUES.get(i);
+        default -> normalize(i, value, parentValue);
+      };
+    }
+    return values;
+  }
+
+  /**
+   * Returns the browser's default style of the element for the property, if it has one.
+   */
+  private static @Nullable String defaultValue(Element element, int property) {
+    String name = element.normalName();
+    return switch (property) {
+      case DISPLAY -> {
+        if (Visibility.isNotRenderedByDefault(element)) yield "none";
+        if (name.equals("li")) yield "list-item";
+        if (TABLE_DISPLAY.containsKey(name)) yield TABLE_DISPLAY.get(name);
+        yield RenderedText.BLOCKS.contains(name) ? "block" : "inline";
+      }
+      case COLOR -> name.equals("a") && element.hasAttr("href") ? "rgba(0, 0, 238, 1)" : null;
+      case FONT_WEIGHT -> BOLD.contains(name) ? "700" : null;
+      default -> null;
+    };
+  }
+
+  private static String normalize(int property, String value, @Nullable String parentValue) {
+    return switch (property) {
+      case COLOR -> color(value);
+      case FONT_WEIGHT -> fontWeight(value, parentValue == null ? 400 : parseInt(parentValue, 400));
+      default -> value;
+    };
+  }
+
+  private static String color(String value) {
+    var named = NAMED_COLORS.get(value);
+    if (named != null) return "rgba(" + named + ", 1)";
+    if (value.equals("transparent")) return "rgba(0, 0, 0, 0)";
+
+    if (value.startsWith("#")) {
+      String hex = value.substring(1);
+      if (hex.length() == 3 || hex.length() == 4) {
+        var expanded = new StringBuilder();
+        for (char c : hex.toCharArray()) expanded.append(c).append(c);
+        hex = expanded.toString();
+      }
+      if (hex.length() != 6 && hex.length() != 8) return value;
+      try {
+        int r = Integer.parseInt(hex, 0, 2, 16);
+        int g = Integer.parseInt(hex, 2, 4, 16);
+        int b = Integer.parseInt(hex, 4, 6, 16);
+        String alpha = hex.length() == 8 ? alpha(Integer.parseInt(hex, 6, 8, 16) / 255.0) : "1";
+        return "rgba(" + r + ", " + g + ", " + b + ", " + alpha + ")";
+      } catch (NumberFormatException e) {
+        return value;
+      }
+    }
+
+    if ((value.startsWith("rgb(") || value.startsWith("rgba(")) && value.endsWith(")")) {
+      String[] components = value.substring(value.indexOf('(') + 1, value.length() - 1).split("[,/\\s]+");
+      if (components.length != 3 && components.length != 4) return value;
+      String alpha = components.length == 4 ? components[3] : "1";
+      return "rgba(" + components[0] + ", " + components[1] + ", " + components[2] + ", " + alpha + ")";
+    }
+    return value;
+  }
+
+  private static String alpha(double alpha) {
+    String rounded = Double.toString(Math.round(alpha * 1000) / 1000.0);
+    return rounded.endsWith(".0") ? rounded.substring(0, rounded.length() - 2) : rounded;
+  }
+
+  private static String fontWeight(String value, int parentWeight) {
+    return switch (value) {
+      case "normal" -> "400";
+      case "bold" -> "700";
+      case "bolder" -> Integer.toString(parentWeight < 400 ? 400 : parentWeight < 600 ? 700 : 900);
+      case "lighter" -> Integer.toString(parentWeight < 600 ? 100 : parentWeight < 800 ? 400 : 700);
+      default -> value;
+    };
+  }
+
+  private static int parseInt(String value, int defaultValue) {
+    try {
+      return Integer.parseInt(value);
+    } catch (NumberFormatException e) {
+      return defaultValue;
+    }
+  }
+
+  private void parseStyleSheet(String css) {
+    int start = 0;
+    while (start < css.length()) {
+      int open = css.indexOf('{', start);
+      if (open == -1) return;
+      int close = matchingBrace(css, open);
+
+      String prelude = css.substring(start, open);
+      // Statements like @import end at a semicolon rather than a block.
+      prelude = prelude.substring(prelude.lastIndexOf(';') + 1).trim();
+      String block = css.substring(open + 1, close);
+      if (prelude.startsWith("@media")) {
+        if (!prelude.contains("print")) parseStyleSheet(block);
+      } else if (!prelude.startsWith("@")) {
+        addRules(prelude, parseDeclarations(block));
+      }
+      start = close + 1;
+    }
+  }
+
+  private void addRules(String selectors, @Nullable String[][] declarations) {
+    for (String selector : selectors.split(",")) {
+      String trimmed = selector.trim();
+      if (trimmed.isEmpty()) continue;
+      try {
+        Evaluator evaluator = EvaluatorCache.isStructural(trimmed) ? QueryParser.parse(trimmed)
+          : JsoupWebDriver.evaluatorCache().get(CssCascade.class, trimmed, () -> QueryParser.parse(trimmed));
+        rules.add(new Rule(evaluator, declarations, specificity(trimmed), rules.size()));
+      } catch (Selector.SelectorParseException | IllegalArgumentException e) {
+        // Not supported by jsoup, e.g. a pseudo class depending on user interaction.
+      }
+    }
+  }
+
+  /**
+   * Parses the supported properties of a declaration block into their values and whether they're important.
+   */
+  private static @Nullable String[][] parseDeclarations(String block) {
+    var values = new String[PROPERTIES.size()];
+    var important = new String[PROPERTIES.size()];
+    for (String declaration : block.split(";")) {
+      int colon = declaration.indexOf(':');
+      if (colon == -1) continue;
+
+      int index = PROPERTIES.indexOf(declaration.substring(0, colon).trim().toLowerCase(Locale.ROOT));
+      if (index == -1) continue;
+      String value = declaration.substring(colon + 1).trim().toLowerCase(Locale.ROOT);
+      if (value.endsWith("!important")) {
+        important[index] = value.substring(0, value.length() - "!important".length()).trim();
+      } else if (!value.isEmpty()) {
+        values[index] = value;
+      }
+    }
+    return new String[][]{values, important};
+  }
+
+  /**
+   * Approximates the specificity of a selector as ids, classes, attributes and pseudo classes, and type selectors, in
+   * decreasing order of weight.
+   */
+  private static int specificity(String selector) {
+    int ids = 0;
+    int classes = 0;
+    int types = 0;
+    boolean compoundStart = true;
+    for (int i = 0; i < selector.length(); i++) {
+      char c = selector.charAt(i);
+      switch (c) {
+        case '#' -> ids++;
+        case '.', '[', ':' -> classes++;
+        default -> {
+          if (compoundStart && Character.isLetter(c)) types++;
+        }
+      }
+      if (c == '[') i = Math.max(i, selector.indexOf(']', i));
+      if (c == '(') i = Math.max(i, selector.indexOf(')', i));
+      compoundStart = c == ' ' || c == '>' || c == '+' || c == '~';
+    }
+    return Math.min(ids, 127) << 16 | Math.min(classes, 255) << 8 | Math.min(types, 255);
+  }
+
+  private static int matchingBrace(String css, int open) {
+    int depth = 0;
+    for (int i = open; i < css.length(); i++) {
+      char c = css.charAt(i);
+      if (c == '{') depth++;
+      if (c == '}' && --depth == 0) return i;
+    }
+    return css.length();
+  }
+
+  private static String stripComments(String css) {
+    if (!css.contains("/*")) return css;
+
+    var stripped = new StringBuilder(css.length());
+    int start = 0;
+    while (start < css.length()) {
+      int comment = css.indexOf("/*", start);
+      if (comment == -1) break;
+      stripped.append(css, start, comment);
+      int end = css.indexOf("*/", comment + 2);
+      start = end == -1 ? css.length() : end + 2;
+    }
+    if (start < css.length()) stripped.append(css, start, css.length());
+    return stripped.toString();
+  }
+
+  /**
+   * A batch of computations, see {@link #batch()}.
+   */
+  interface Batch extends AutoCloseable {
+    @Override
+    void close();
+  }
+
+  /**
+   * A style rule with a single selector. Its priority orders it by specificity and then source order, inline styles
+   * come after all rules, and important declarations after all normal ones.
+   */
+  private record Rule(Evaluator evaluator, @Nullable String[][] declarations, long priority) {
+    static final long INLINE_PRIORITY = 1L << 56;
+    static final long IMPORTANT_PRIORITY = 1L << 57;
+
+    Rule(Evaluator evaluator, @Nullable String[][] declarations, int specificity, int order) {
+      this(evaluator, declarations, (long) specificity << 32 | order);
+    }
+  }
+
+  /**
+   * The winning declared values of an element, with their priorities.
+   */
+  private static final class Declarations {
+    private final @Nullable String[] values = new String[PROPERTIES.size()];
+    private final long[] priorities = new long[PROPERTIES.size()];
+
+    void add(@Nullable String[][] declarations, long priority) {
+      add(declarations[0], priority);
+      add(declarations[1], priority | Rule.IMPORTANT_PRIORITY);
+    }
+
+    private void add(@Nullable String[] declared, long priority) {
+      for (int i = 0; i < declared.length; i++) {
+        if (declared[i] != null && (values[i] == null || priority >= priorities[i])) {
+          values[i] = declared[i];
+          priorities[i] = priority;
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,197 @@
+package com.asyncant.selenium;
+
+import com.asyncant.selenium.transport.TransportRequest;
+import com.asyncant.selenium.transport.TransportResponse;
+import org.jsoup.nodes.Document;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded cache of parsed documents for GET requests, honouring the {@code ETag}, {@code Last-Modified} and
+ * {@code Cache-Control} response headers. Fresh entries are served without a request, stale entries are revalidated
+ * with a conditional request and reused on a {@code 304 Not Modified}. The least recently used entry is evicted once
+ * the cache is full.
+ * <p>
+ * Cached documents are shared rather than copied, the driver never modifies a parsed document but keeps its changes
+ * per page. A cache can be shared between drivers. Responses marked {@code private} or {@code no-store} are never
+ * cached, but since cookies are not part of the cache key, it should only be used for pages that don't depend on the
+ * session.
+ */
+@NullMarked
+public class DocumentCache {
+  private final int maxEntries;
+  private final Map<URI, Entry> entries;
+  /**
+   * A lock rather than synchronized, so waiting for it doesn't pin the carrier of a virtual thread.
+   */
+  private final ReentrantLock lock = new ReentrantLock();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  public DocumentCache(int maxEntries) {
+    if (maxEntries < 1) throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+
+    this.maxEntries = maxEntries;
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<URI, Entry> eldest) {
+        return size() > DocumentCache.this.maxEntries;
+      }
+    };
+  }
+
+  /**
+   * The number of requests served from the cache, either because the entry was fresh or because it was revalidated.
+   */
+  public long hits() {
+    return hits.sum();
+  }
+
+  /**
+   * The number of cacheable requests for which a full response had to be fetched.
+   */
+  public long misses() {
+    return misses.sum();
+  }
+
+  public int size() {
+    lock.lock();
+    try {
+      return entries.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public void clear() {
+    lock.lock();
+    try {
+      entries.clear();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the cached document if it's fresh, so it can be used without a request.
+   */
+  @Nullable Document getFresh(URI uri) {
+    var entry = get(uri);
+    if (entry == null || entry.expiresAt() <= System.currentTimeMillis()) return null;
+
+    hits.increment();
+    return entry.document();
+  }
+
+  /**
+   * Adds the validators of a cached entry to the request, if there is one.
+   */
+  TransportRequest conditional(TransportRequest request) {
+    var entry = get(request.uri());
+    if (entry == null) return request;
+
+    if (entry.etag() != null) request = request.withHeader("If-None-Match", entry.etag());
+    if (entry.lastModified() != null) request = request.withHeader("If-Modified-Since", entry.lastModified());
+    return request;
+  }
+
+  /**
+   * Handles a {@code 304 Not Modified} response by refreshing the entry and returning its document.
+   */
+  @Nullable Document revalidate(URI uri, TransportResponse response) {
+    long expiresAt = expiresAt(response.header("Cache-Control"));
+    @Nullable Entry entry;
+    // Under the lock, so an entry stored or evicted meanwhile isn't overwritten with the old one.
+    lock.lock();
+    try {
+      entry = entries.computeIfPresent(uri, (key, old) ->
+        new Entry(old.document(), old.etag(), old.lastModified(), expiresAt));
+    } finally {
+      lock.unlock();
+    }
+    if (entry == null) return null;
+
+    hits.increment();
+    return entry.document();
+  }
+
+  /**
+   * Returns whether a full response to a GET request may be cached.
+   */
+  static boolean isCacheable(TransportResponse response) {
+    if (response.statusCode() != 200) return false;
+
+    String cacheControl = lowerCase(response.header("Cache-Control"));
+    if (cacheControl.contains("no-store") || cacheControl.contains("private")) return false;
+
+    return response.header("ETag") != null || response.header("Last-Modified") != null || maxAge(cacheControl) > 0;
+  }
+
+  /**
+   * Stores the document parsed from a cacheable response.
+   */
+  void store(URI uri, TransportResponse response, Document document) {
+    misses.increment();
+    put(uri, new Entry(document, response.header("ETag"), response.header("Last-Modified"),
+      expiresAt(response.header("Cache-Control"))));
+  }
+
+  /**
+   * Records a request that could not be served from the cache and whose response won't be cached.
+   */
+  void recordMiss() {
+    misses.increment();
+  }
+
+  private @Nullable Entry get(URI uri) {
+    lock.lock();
+    try {
+      return entries.get(uri);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void put(URI uri, Entry entry) {
+    lock.lock();
+    try {
+      entries.put(uri, entry);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private static long expiresAt(@Nullable String cacheControl) {
+    String directives = lowerCase(cacheControl);
+    if (directives.contains("no-cache")) return 0;
+    return System.currentTimeMillis() + maxAge(directives) * 1000;
+  }
+
+  private static long maxAge(String directives) {
+    int index = directives.indexOf("max-age=");
+    if (index == -1) return 0;
+
+    int start = index + "max-age=".length();
+    int end = start;
+    while (end < directives.length() && Character.isDigit(directives.charAt(end))) end++;
+    try {
+      return Long.parseLong(directives.substring(start, end));
+    } catch (NumberFormatException e) {
+      return 0;
+    }
+  }
+
+  private static String lowerCase(@Nullable String value) {
+    return value == null ? "" : value.toLowerCase(Locale.ROOT);
+  }
+
+  private record Entry(Document document, @Nullable String etag, @Nullable String lastModified, long expiresAt) {
+  }
+}
@@ -0,0 +1,150 @@
+package com.asyncant.selenium;
+
+import org.jsoup.nodes.Element;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Lazy lookup tables for the elements of a document by id, name, tag, class and link text, so these locators don't
+ * have to walk the whole tree when searching from the root. Each table is built with a single traversal on first use
+ * and lists the elements in document order. The text of each link is computed once, partial link text searches scan
+ * the precomputed texts.
+ * <p>
+ * The driver never modifies a parsed document, see {@link FormState}, so the tables never need to be invalidated. They
+ * match exactly like the corresponding jsoup evaluators.
+ */
+@NullMarked
+final class DocumentIndex {
+  private final Element root;
+  private final Map<Kind, Map<String, List<Element>>> tables = new EnumMap<>(Kind.class);
+  private @Nullable List<Link> links;
+
+  DocumentIndex(Element root) {
+    this.root = root;
+  }
+
+  /**
+   * Like {@link org.jsoup.select.Evaluator.Id}, case-sensitive.
+   */
+  List<Element> byId(String id) {
+    return lookUp(Kind.ID, id);
+  }
+
+  /**
+   * Like {@link org.jsoup.select.Evaluator.AttributeWithValue} for the name attribute: quotes around the name are
+   * stripped, it's lower-cased and trimmed, and then compared to the trimmed attribute with
+   * {@link String#equalsIgnoreCase(String)}.
+   */
+  List<Element> byName(String name) {
+    boolean quoted = name.startsWith("'") && name.endsWith("'") || name.startsWith("\"") && name.endsWith("\"");
+    if (quoted && name.length() > 1) name = name.substring(1, name.length() - 1);
+    return lookUp(Kind.NAME, foldCase(name.toLowerCase(Locale.ENGLISH).trim()));
+  }
+
+  /**
+   * Like {@link org.jsoup.select.Evaluator.Tag}, by normalized tag name.
+   */
+  List<Element> byTag(String tagName) {
+    return lookUp(Kind.TAG, tagName);
+  }
+
+  /**
+   * Like {@link org.jsoup.select.Evaluator.Class}, ignoring case.
+   */
+  List<Element> byClass(String className) {
+    return lookUp(Kind.CLASS, className.toLowerCase(Locale.ROOT));
+  }
+
+  /**
+   * Like {@link com.asyncant.jsoup.select.LinkTextEvaluator}.
+   */
+  List<Element> byLinkText(String text) {
+    return lookUp(Kind.LINK_TEXT, text);
+  }
+
+  /**
+   * Like {@link com.asyncant.jsoup.select.PartialLinkTextEvaluator}.
+   */
+  List<Element> byPartialLinkText(String text) {
+    List<Element> anchors = new ArrayList<>();
+    for (Link link : links()) {
+      if (link.text().contains(text)) anchors.add(link.anchor());
+    }
+    return anchors;
+  }
+
+  private List<Link> links() {
+    var links = this.links;
+    if (links == null) {
+      links = new ArrayList<>();
+      for (Element element : root.getAllElements()) {
+        if (element != root && element.tagName().equals("a")) links.add(new Link(element, element.text()));
+      }
+      this.links = links;
+    }
+    return links;
+  }
+
+  private List<Element> lookUp(Kind kind, String key) {
+    var table = tables.computeIfAbsent(kind, this::build);
+    return table.getOrDefault(key, List.of());
+  }
+
+  private Map<String, List<Element>> build(Kind kind) {
+    Map<String, List<Element>> table = new HashMap<>();
+    if (kind == Kind.LINK_TEXT) {
+      for (Link link : links()) add(table, link.text(), link.anchor());
+      return table;
+    }
+
+    for (Element element : root.getAllElements()) {
+      // Searches never match the element they start from.
+      if (element == root) continue;
+
+      switch (kind) {
+        case ID -> {
+          String id = element.id();
+          if (!id.isEmpty()) add(table, id, element);
+        }
+        case NAME -> {
+          if (element.hasAttr("name")) add(table, foldCase(element.attr("name").trim()), element);
+        }
+        case TAG -> add(table, element.normalName(), element);
+        case CLASS -> {
+          for (String className : element.classNames()) add(table, className.toLowerCase(Locale.ROOT), element);
+        }
+      }
+    }
+    return table;
+  }
+
+  /**
+   * Maps strings that are equal according to {@link String#equalsIgnoreCase(String)} to the same key. Unlike
+   * lower-casing the whole string, this compares character by character, e.g. the dotted capital I equals {@code i}.
+   */
+  private static String foldCase(String text) {
+    var folded = new StringBuilder(text.length());
+    text.codePoints().forEach(c -> folded.appendCodePoint(Character.toLowerCase(Character.toUpperCase(c))));
+    return folded.toString();
+  }
+
+  private static void add(Map<String, List<Element>> table, String key, Element element) {
+    var elements = table.computeIfAbsent(key, it -> new ArrayList<>(1));
+    // An element may list the same class more than once.
+    if (elements.isEmpty() || elements.getLast() != element) elements.add(element);
+  }
+
+  private enum Kind {
+    ID, NAME, TAG, CLASS, LINK_TEXT
+  }
+
+  private record Link(Element anchor, String text) {
+  }
+}
@@ -0,0 +1,75 @@
+package com.asyncant.selenium;
+
+import org.jsoup.nodes.Element;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.util.function.Consumer;
+
+/**
+ * An identity map from elements to values, e.g. their wrappers, backed by two arrays with open addressing. Unlike a
+ * {@link java.util.HashMap} it doesn't allocate an entry per element, nor anything at all on lookups. Entries can't be
+ * removed, the store lives as long as its page.
+ */
+@NullMarked
+final class ElementStore<V> {
+  private @Nullable Element[] keys = new Element[16];
+  private @Nullable Object[] values = new Object[16];
+  private int size;
+
+  @SuppressWarnings("unchecked")
+  @Nullable V get(Element element) {
+    int mask = keys.length - 1;
+    for (int i = slot(element, mask); ; i = (i + 1) & mask) {
+      var key = keys[i];
+      if (key == element) return (V) values[i];
+      if (key == null) return null;
+    }
+  }
+
+  /**
+   * Adds a value for an element that isn't in the store yet.
+   */
+  void put(Element element, V value) {
+    // Keep the table at most half full, so probe sequences stay short.
+    if (2 * (size + 1) > keys.length) resize();
+    insert(element, value);
+    size++;
+  }
+
+  int size() {
+    return size;
+  }
+
+  @SuppressWarnings("unchecked")
+  void forEach(Consumer<V> action) {
+    for (int i = 0; i < keys.length; i++) {
+      if (keys[i] != null) action.accept((V) values[i]);
+    }
+  }
+
+  private void resize() {
+    var oldKeys = keys;
+    var oldValues = values;
+    keys = new Element[oldKeys.length * 2];
+    values = new Object[oldValues.length * 2];
+    for (int i = 0; i < oldKeys.length; i++) {
+      var key = oldKeys[i];
+      if (key != null) insert(key, oldValues[i]);
+    }
+  }
+
+  private void insert(Element element, @Nullable Object value) {
+    int mask = keys.length - 1;
+    int i = slot(element, mask);
+    while (keys[i] != null) i = (i + 1) & mask;
+    keys[i] = element;
+    values[i] = value;
+  }
+
+  static int slot(Element element, int mask) {
+    // Spread the identity hash, its low bits alone cluster.
+    int hash = System.identityHashCode(element) * 0x9E3779B9;
+    return (hash ^ (hash >>> 16)) & mask;
+  }
+}
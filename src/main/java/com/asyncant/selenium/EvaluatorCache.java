@@ -0,0 +1,113 @@
+package com.asyncant.selenium;
+
+import com.asyncant.jsoup.select.NotRootWrappingEvaluator;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Collector;
+import org.jsoup.select.Evaluator;
+import org.jspecify.annotations.NullMarked;
+
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * A bounded cache of compiled evaluators by locator strategy and selector, so repeated lookups with the same locator
+ * don't parse and build the evaluator again. A single cache is shared by all drivers, see
+ * {@link JsoupWebDriver#evaluatorCache()}, so it only holds evaluators without state. jsoup's structural evaluators,
+ * for combinators and pseudo classes like {@code :has}, memoize their matches by the elements they searched, so
+ * selectors that use them are compiled for each search instead, see {@link #isStructural(String)}.
+ * <p>
+ * When the cache is full an arbitrary entry is evicted, which is cheap and good enough for the typical page object
+ * workload of a few hundred locators used over and over.
+ */
+@NullMarked
+public final class EvaluatorCache {
+  /** An empty element to run collectors on, which clears the memo of the evaluator. */
+  private static final Element EMPTY = new Element("html");
+
+  private final int maxEntries;
+  private final ConcurrentHashMap<Key, Evaluator> evaluators = new ConcurrentHashMap<>();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  EvaluatorCache(int maxEntries) {
+    this.maxEntries = maxEntries;
+  }
+
+  Evaluator get(Class<?> strategy, String selector, Supplier<Evaluator> compile) {
+    var key = new Key(strategy, selector);
+    var evaluator = evaluators.get(key);
+    if (evaluator != null) {
+      hits.increment();
+      return evaluator;
+    }
+
+    misses.increment();
+    evaluator = compile.get();
+    if (evaluators.size() >= maxEntries) evictOne();
+    evaluators.put(key, evaluator);
+    return evaluator;
+  }
+
+  /**
+   * Returns whether jsoup compiles the CSS selector to a structural evaluator, which must not be cached. This errs on
+   * the side of caution, e.g. a space in an attribute value or a {@code +} in {@code :nth-child} count as well.
+   */
+  static boolean isStructural(String css) {
+    for (int i = 0; i < css.length(); i++) {
+      char c = css.charAt(i);
+      if (Character.isWhitespace(c) || c == '>' || c == '+' || c == '~') return true;
+    }
+    String lowerCase = css.toLowerCase(Locale.ROOT);
+    return lowerCase.contains(":has(") || lowerCase.contains(":not(") || lowerCase.contains(":is(")
+      || lowerCase.contains(":where(");
+  }
+
+  /**
+   * Clears what the evaluator memoized on the current thread while searching. The memo lives in a thread local, which
+   * the thread only purges some time after the evaluator is gone, so without this it would keep the searched document
+   * reachable. jsoup resets evaluators before each collector run, which is the only public way to clear it.
+   */
+  static void clearMemo(Evaluator evaluator) {
+    if (evaluator instanceof NotRootWrappingEvaluator wrapping) evaluator = wrapping.wrapped();
+    Collector.collect(evaluator, EMPTY);
+  }
+
+  private void evictOne() {
+    Iterator<Key> keys = evaluators.keySet().iterator();
+    if (keys.hasNext()) {
+      keys.next();
+      keys.remove();
+    }
+  }
+
+  public long hits() {
+    return hits.sum();
+  }
+
+  public long misses() {
+    return misses.sum();
+  }
+
+  /**
+   * Returns the fraction of lookups served from the cache, or 0 if there were none.
+   */
+  public double hitRate() {
+    long hits = hits();
+    long total = hits + misses();
+    return total == 0 ? 0 : (double) hits / total;
+  }
+
+  public int size() {
+    return evaluators.size();
+  }
+
+  public void clear() {
+    evaluators.clear();
+  }
+
+  private record Key(Class<?> strategy, String selector) {
+  }
+}
@@ -0,0 +1,172 @@
+package com.asyncant.selenium;
+
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.FormElement;
+import org.jspecify.annotations.NullMarked;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * The controls of a form that take part in its submission, like {@link FormElement#formData()} would walk them. They
+ * are collected once per form and page, since the driver never modifies the document, and the values are read from
+ * the {@link FormState} on each submission and encoded straight into the request body, without intermediate key-value
+ * pairs or strings.
+ */
+@NullMarked
+final class FormData {
+  private static final byte[] HEX = "0123456789ABCDEF".getBytes(UTF_8);
+  private static final byte[] CRLF = {'\r', '\n'};
+
+  private final List<Control> controls = new ArrayList<>();
+
+  FormData(FormElement form) {
+    for (Element control : form.elements()) {
+      if (!control.tag().isFormSubmittable()) continue;
+      if (control.hasAttr("disabled")) continue;
+      String name = control.attr("name");
+      if (name.isEmpty()) continue;
+      String type = control.attr("type");
+      if (type.equalsIgnoreCase("button") || type.equalsIgnoreCase("image")) continue;
+
+      if (control.nameIs("select")) {
+        controls.add(new Control(name, Kind.SELECT, control, control.getElementsByTag("option")));
+      } else if (type.equalsIgnoreCase("checkbox") || type.equalsIgnoreCase("radio")) {
+        controls.add(new Control(name, Kind.CHECKABLE, control, List.of()));
+      } else if (type.equalsIgnoreCase("file")) {
+        controls.add(new Control(name, Kind.FILE, control, List.of()));
+      } else {
+        controls.add(new Control(name, Kind.VALUE, control, List.of()));
+      }
+    }
+  }
+
+  /**
+   * Encodes the current values as {@code application/x-www-form-urlencoded}, like {@link java.net.URLEncoder}. Files
+   * are submitted by their path.
+   */
+  byte[] urlEncoded(FormState formState) {
+    var body = new ByteArrayOutputStream();
+    forEachEntry(formState, (control, value) -> {
+      if (body.size() > 0) body.write('&');
+      urlEncode(control.name(), body);
+      body.write('=');
+      urlEncode(value, body);
+    });
+    return body.toByteArray();
+  }
+
+  /**
+   * Encodes the current values as {@code multipart/form-data}, with the content of selected files.
+   */
+  byte[] multipart(FormState formState, String boundary) {
+    var body = new ByteArrayOutputStream();
+    byte[] delimiter = ("--" + boundary).getBytes(UTF_8);
+    forEachEntry(formState, (control, value) -> {
+      if (control.kind() == Kind.FILE) {
+        // Like Selenium, multiple files are separated by new lines.
+        for (String file : value.isEmpty() ? new String[]{""} : value.split("\n")) {
+          body.writeBytes(delimiter);
+          body.writeBytes(CRLF);
+          String fileName = file.isEmpty() ? "" : Path.of(file).getFileName().toString();
+          body.writeBytes(("Content-Disposition: form-data; name=\"" + escapeQuoted(control.name())
+            + "\"; filename=\"" + escapeQuoted(fileName) + "\"\r\nContent-Type: application/octet-stream\r\n\r\n")
+            .getBytes(UTF_8));
+          if (!file.isEmpty()) body.writeBytes(readFile(file));
+          body.writeBytes(CRLF);
+        }
+      } else {
+        body.writeBytes(delimiter);
+        body.writeBytes(CRLF);
+        body.writeBytes(("Content-Disposition: form-data; name=\"" + escapeQuoted(control.name()) + "\"\r\n\r\n")
+          .getBytes(UTF_8));
+        body.writeBytes(value.getBytes(UTF_8));
+        body.writeBytes(CRLF);
+      }
+    });
+    body.writeBytes(delimiter);
+    body.write('-');
+    body.write('-');
+    body.writeBytes(CRLF);
+    return body.toByteArray();
+  }
+
+  private void forEachEntry(FormState formState, BiConsumer<Control, String> consumer) {
+    for (Control control : controls) {
+      switch (control.kind()) {
+        case SELECT -> {
+          boolean set = false;
+          for (Element option : control.options()) {
+            if (!formState.isSelected(option)) continue;
+            consumer.accept(control, option.val());
+            set = true;
+          }
+          if (!set && !control.options().isEmpty()) consumer.accept(control, control.options().getFirst().val());
+        }
+        case CHECKABLE -> {
+          if (formState.isChecked(control.element())) {
+            String value = formState.value(control.element());
+            consumer.accept(control, value.isEmpty() ? "on" : value);
+          }
+        }
+        case FILE, VALUE -> consumer.accept(control, formState.value(control.element()));
+      }
+    }
+  }
+
+  private static void urlEncode(String value, ByteArrayOutputStream out) {
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '.' || c == '-' || c == '*'
+        || c == '_') {
+        out.write(c);
+      } else if (c == ' ') {
+        out.write('+');
+      } else if (c < 0x80) {
+        percentEncode(c, out);
+      } else {
+        // Encode a run of non-ASCII characters at once, so surrogate pairs stay together.
+        int end = i + 1;
+        while (end < value.length() && value.charAt(end) >= 0x80) end++;
+        for (byte b : value.substring(i, end).getBytes(UTF_8)) percentEncode(b & 0xff, out);
+        i = end - 1;
+      }
+    }
+  }
+
+  private static void percentEncode(int b, ByteArrayOutputStream out) {
+    out.write('%');
+    out.write(HEX[b >> 4]);
+    out.write(HEX[b & 0xf]);
+  }
+
+  /**
+   * Escapes a name for a quoted string in a {@code Content-Disposition} header, like browsers do.
+   */
+  private static String escapeQuoted(String value) {
+    return value.replace("\"", "%22").replace("\r", "%0D").replace("\n", "%0A");
+  }
+
+  private static byte[] readFile(String file) {
+    try {
+      return Files.readAllBytes(Path.of(file));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not read file to upload: " + file, e);
+    }
+  }
+
+  private enum Kind {
+    VALUE, CHECKABLE, SELECT, FILE
+  }
+
+  private record Control(String name, Kind kind, Element element, List<Element> options) {
+  }
+}
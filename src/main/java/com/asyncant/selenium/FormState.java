@@ -0,0 +1,119 @@
+package com.asyncant.selenium;
+
+import org.jsoup.nodes.Element;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * The form state of a page as changed by the driver, e.g. by typing or clicking checkboxes. It's kept on the side so
+ * the parsed document itself is never modified and can be shared, e.g. from a {@link DocumentCache}. That also means
+ * the original value of a control is always the one in the document.
+ * <p>
+ * All reads of state that the driver can change must go through this class. Elements without changes have no entry.
+ */
+@NullMarked
+final class FormState {
+  private final Map<Element, ControlState> states = new IdentityHashMap<>();
+  /**
+   * Incremented whenever the text of an element changes, so text computed before can be recognized as outdated.
+   */
+  private int textVersion;
+
+  /**
+   * Returns the current value of a form control, like {@link Element#val()} would after the changes.
+   */
+  String value(Element element) {
+    var value = changedValue(element);
+    return value != null ? value : element.val();
+  }
+
+  /**
+   * Returns the value set by the driver, or null if it hasn't been changed.
+   */
+  @Nullable String changedValue(Element element) {
+    var state = states.get(element);
+    return state == null ? null : state.value;
+  }
+
+  void setValue(Element element, String value) {
+    state(element).value = value;
+  }
+
+  boolean isChecked(Element element) {
+    var state = states.get(element);
+    if (state == null || state.checked == null) return element.hasAttr("checked");
+    return state.checked;
+  }
+
+  void setChecked(Element element, boolean checked) {
+    state(element).checked = checked;
+  }
+
+  /**
+   * Returns whether an option is explicitly selected, i.e. without considering the default selection of a select.
+   */
+  boolean isSelected(Element element) {
+    var state = states.get(element);
+    if (state == null || state.selected == null) return element.hasAttr("selected");
+    return state.selected;
+  }
+
+  void setSelected(Element element, boolean selected) {
+    state(element).selected = selected;
+  }
+
+  /**
+   * Returns the normalized text of the element, like {@link Element#text()}.
+   */
+  String text(Element element) {
+    var state = states.get(element);
+    return state == null || state.text == null ? element.text() : state.text;
+  }
+
+  /**
+   * Returns the text of the element without normalizing whitespace, like {@link Element#wholeText()}.
+   */
+  String wholeText(Element element) {
+    var state = states.get(element);
+    return state == null || state.text == null ? element.wholeText() : state.text;
+  }
+
+  /**
+   * Replaces the text content of the element, used for content editable elements.
+   */
+  void setText(Element element, String text) {
+    state(element).text = text;
+    textVersion++;
+  }
+
+  /**
+   * Returns the text set by the driver, or null if it hasn't been changed.
+   */
+  @Nullable String changedText(Element element) {
+    var state = states.get(element);
+    return state == null ? null : state.text;
+  }
+
+  boolean hasChangedText() {
+    return textVersion != 0;
+  }
+
+  int textVersion() {
+    return textVersion;
+  }
+
+  private ControlState state(Element element) {
+    return states.computeIfAbsent(element, it -> new ControlState());
+  }
+
+  @NullMarked
+  private static final class ControlState {
+    private @Nullable String value;
+    private @Nullable Boolean checked;
+    private @Nullable Boolean selected;
+    private @Nullable String text;
+  }
+}
@@ -0,0 +1,42 @@
+package com.asyncant.selenium;
+
+import org.jsoup.nodes.Element;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Locale;
+
+/**
+ * Reads declarations from the {@code style} attribute of an element without a CSS parser, for the few properties the
+ * driver approximates rendering with.
+ */
+@NullMarked
+final class InlineStyle {
+  private InlineStyle() {
+  }
+
+  /**
+   * Returns the lower case value of the last declaration of the property in the style attribute, without
+   * {@code !important}, or null if it isn't declared.
+   */
+  static @Nullable String get(Element element, String property) {
+    if (!element.hasAttr("style")) return null;
+
+    String style = element.attr("style");
+    @Nullable String value = null;
+    int start = 0;
+    while (start < style.length()) {
+      int end = style.indexOf(';', start);
+      if (end == -1) end = style.length();
+      int colon = style.indexOf(':', start);
+      if (colon != -1 && colon < end && style.substring(start, colon).trim().equalsIgnoreCase(property)) {
+        value = style.substring(colon + 1, end).trim().toLowerCase(Locale.ROOT);
+      }
+      start = end + 1;
+    }
+    if (value != null && value.endsWith("!important")) {
+      value = value.substring(0, value.length() - "!important".length()).trim();
+    }
+    return value;
+  }
+}
@@ -3,12 +3,19 @@ package com.asyncant.selenium;
 import com.asyncant.jsoup.select.LinkTextEvaluator;
 import com.asyncant.jsoup.select.NotRootWrappingEvaluator;
 import com.asyncant.jsoup.select.PartialLinkTextEvaluator;
-import org.jsoup.Connection;
+import com.asyncant.jsoup.select.XPathEvaluator;
+import com.asyncant.selenium.transport.HttpClientTransport;
+import com.asyncant.selenium.transport.Transport;
+import com.asyncant.selenium.transport.TransportRequest;
+import com.asyncant.selenium.transport.TransportResponse;
+import org.jsoup.HttpStatusException;
+import org.jsoup.Jsoup;
 import org.jsoup.helper.ValidationException;
 import org.jsoup.nodes.Attribute;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.nodes.FormElement;
+import org.jsoup.parser.Parser;
 import org.jsoup.select.Elements;
 import org.jsoup.select.Evaluator;
 import org.jsoup.select.QueryParser;
@@ -20,37 +27,113 @@ import org.openqa.selenium.NoSuchElementException;
 import org.openqa.selenium.logging.LogEntries;
 import org.openqa.selenium.logging.Logs;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.ref.SoftReference;
 import java.net.*;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 /**
  * A jsoup-based implementation of WebDriver, intended to be used for functional testing. It does not implement all
  * features of the {@link WebDriver} interface, and instead sacrifices features, most prominently CSS and Javascript,
  * for speed.
+ * <p>
+ * All requests go through a {@link Transport}, by default an {@link HttpClientTransport}. The driver itself keeps the
+ * cookies and follows redirects, so these behave the same regardless of the transport used.
+ * <p>
+ * Use {@link #builder()} to configure the driver beyond the transport.
  */
 @NullMarked
 public class JsoupWebDriver implements WebDriver {
-  private Page lastPage = new Page(Document.createShell("http://invalid.localhost"));
+  private final Transport transport;
+  /**
+   * The transport the driver created itself, closed when the driver quits. A transport passed in is left open.
+   */
+  private final @Nullable HttpClientTransport ownTransport;
+  private final boolean lazyParsing;
+  private final @Nullable DocumentCache documentCache;
+  private final PageRetention pageRetention;
+  private final boolean renderedText;
+  private final boolean computedStyles;
+  private final @Nullable Prefetcher prefetcher;
+  private final CookieManager cookieManager = new CookieManager();
+  private final XPathCompiler xpathCompiler = new XPathCompiler();
+  private Page lastPage = blankPage();
   private final JsoupWebDriverOptions manageOptions = new JsoupWebDriverOptions();
   private final JsoupWebDriverTimeoutConfig timeoutConfig = new JsoupWebDriverTimeoutConfig();
   private final JsoupWebDriverLogs logs = new JsoupWebDriverLogs();
   private final JsoupWebDriverWindowConfig windowConfig = new JsoupWebDriverWindowConfig();
   private final JsoupWebDriverNavigation navigation = new JsoupWebDriverNavigation();
 
+  public JsoupWebDriver() {
+    this(builder());
+  }
+
+  /**
+   * Creates a driver that fetches all pages through the given transport.
+   */
+  public JsoupWebDriver(Transport transport) {
+    this(builder().transport(transport));
+  }
+
+  private JsoupWebDriver(Builder builder) {
+    if (builder.transport != null) {
+      this.transport = builder.transport;
+      this.ownTransport = null;
+    } else {
+      var created = new HttpClientTransport();
+      this.transport = created;
+      this.ownTransport = created;
+    }
+    this.lazyParsing = builder.lazyParsing;
+    this.documentCache = builder.documentCache;
+    this.pageRetention = builder.pageRetention;
+    this.renderedText = builder.renderedText;
+    this.computedStyles = builder.computedStyles;
+    this.prefetcher = builder.prefetchPolicy != null
+      ? new Prefetcher(builder.prefetchPolicy, transport, cookieManager)
+      : null;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Returns the cache of compiled locators shared by all drivers, e.g. to check its hit rate.
+   */
+  public static EvaluatorCache evaluatorCache() {
+    return EVALUATOR_CACHE;
+  }
+
   @Override
   public void get(String url) {
     if ("about:blank".equals(url)) {
-      lastPage = new Page(Document.createShell("http://invalid.localhost"));
+      navigate(blankPage());
       return;
     }
 
-    Connection connection = lastPage.response.connection();
     try {
-      lastPage = new Page(connection.newRequest(url).ignoreHttpErrors(true).get());
+      var uri = toRequestUri(url);
+      var prefetched = prefetcher != null ? prefetcher.take(uri) : null;
+      navigate(prefetched != null
+        ? new Page(prefetched, uri, TransportRequest.get(uri))
+        : load(TransportRequest.get(uri), true));
     } catch (IllegalArgumentException e) {
       throw new WebDriverException(e);
     } catch (IOException e) {
@@ -58,6 +141,48 @@ public class JsoupWebDriver implements WebDriver {
     }
   }
 
+  /**
+   * Loads the URL in the background, like {@link #get(String)}, without changing the current page. This allows a
+   * single thread to wait for many pages at once. A loaded page becomes the current page when it's committed.
+   */
+  public CompletableFuture<LoadedPage> getAsync(String url) {
+    if ("about:blank".equals(url)) return CompletableFuture.completedFuture(new LoadedPage(blankPage()));
+
+    try {
+      return loadAsync(TransportRequest.get(toRequestUri(url)), true);
+    } catch (IllegalArgumentException e) {
+      return CompletableFuture.failedFuture(new WebDriverException(e));
+    }
+  }
+
+  /**
+   * Submits the form of the element in the background, like {@link WebElement#submit()}, without changing the current
+   * page. The form is read when this method is called, later changes to it are not submitted. Like for
+   * {@link #getAsync(String)}, failures are reported through the future, e.g. if the element isn't in a form.
+   */
+  public CompletableFuture<LoadedPage> submitAsync(WebElement form) {
+    if (!(form instanceof JsoupWebElement element) || element.getWrappedDriver() != this) {
+      return CompletableFuture.failedFuture(new IllegalArgumentException("Not an element of this driver: " + form));
+    }
+    return element.submitAsync();
+  }
+
+  /**
+   * Loads the page on a virtual thread. Everything loading touches, the transport, the cookie store and the document
+   * cache, is thread-safe.
+   */
+  private CompletableFuture<LoadedPage> loadAsync(TransportRequest request, boolean ignoreHttpErrors) {
+    var future = new CompletableFuture<LoadedPage>();
+    Thread.startVirtualThread(() -> {
+      try {
+        future.complete(new LoadedPage(load(request, ignoreHttpErrors)));
+      } catch (Throwable e) {
+        future.completeExceptionally(e);
+      }
+    });
+    return future;
+  }
+
   @Override
   public @Nullable String getCurrentUrl() {
     return getCurrentUri().toString();
@@ -65,17 +190,25 @@ public class JsoupWebDriver implements WebDriver {
 
   @Override
   public @Nullable String getTitle() {
-    return lastPage.response.title();
+    return lastPage.document().title();
   }
 
   @Override
   public List<WebElement> findElements(By by) {
-    return lastPage.rootElement.findElements(by);
+    return lastPage.root().findElements(by);
   }
 
   @Override
   public WebElement findElement(By by) {
-    return lastPage.rootElement.findElement(by);
+    return lastPage.root().findElement(by);
+  }
+
+  /**
+   * Finds the elements for many locators at once, e.g. to initialize a page object, and returns them by the same keys
+   * in the same order. Locators that have to walk the tree are all matched in a single traversal.
+   */
+  public Map<String, List<WebElement>> findAll(Map<String, By> locators) {
+    return lastPage.root().findAll(locators);
   }
 
   private static Evaluator parseCss(String selector) {
@@ -88,17 +221,23 @@ public class JsoupWebDriver implements WebDriver {
 
   @Override
   public @Nullable String getPageSource() {
-    return lastPage.response.outerHtml();
+    return lastPage.pageSource();
   }
 
+  /**
+   * Closes the only window, which like in a browser quits the driver.
+   */
   @Override
   public void close() {
-
+    quit();
   }
 
+  /**
+   * Closes the transport if the driver created it, afterwards no more pages can be loaded.
+   */
   @Override
   public void quit() {
-
+    if (ownTransport != null) ownTransport.close();
   }
 
   @Override
@@ -128,10 +267,60 @@ public class JsoupWebDriver implements WebDriver {
 
   @NullMarked
   class JsoupWebElement implements WebElement, WrapsDriver {
-    private final Element rawElement;
-
-    JsoupWebElement(Element rawElement) {
+    private @Nullable Page page;
+    private @Nullable Element rawElement;
+    /**
+     * The page and element after navigating away, if old pages are retained softly.
+     */
+    private @Nullable SoftReference<Page> retiredPage;
+    private @Nullable SoftReference<Element> retiredElement;
+    private final int hashCode;
+    /**
+     * The result of {@link #getText()} and the text version of the page's form state it was computed for.
+     */
+    private @Nullable String text;
+    private int textVersion;
+
+    JsoupWebElement(Page page, Element rawElement) {
+      this.page = page;
       this.rawElement = rawElement;
+      this.hashCode = rawElement.hashCode();
+    }
+
+    private Page page() {
+      var page = this.page;
+      if (page == null && retiredPage != null) page = retiredPage.get();
+      if (page == null) throw staleElement();
+      return page;
+    }
+
+    private Element element() {
+      var element = retainedElement();
+      if (element == null) throw staleElement();
+      return element;
+    }
+
+    private @Nullable Element retainedElement() {
+      var element = rawElement;
+      if (element == null && retiredElement != null) element = retiredElement.get();
+      return element;
+    }
+
+    private StaleElementReferenceException staleElement() {
+      return new StaleElementReferenceException("The element's page has been navigated away from and released");
+    }
+
+    /**
+     * Releases the page and element after navigating away, so they can be reclaimed as the retention policy allows.
+     */
+    private void retire(PageRetention retention) {
+      if (retention == PageRetention.STRONG) return;
+      if (retention == PageRetention.SOFT && page != null && rawElement != null) {
+        retiredPage = new SoftReference<>(page);
+        retiredElement = new SoftReference<>(rawElement);
+      }
+      page = null;
+      rawElement = null;
     }
 
     @Override
@@ -140,7 +329,7 @@ public class JsoupWebDriver implements WebDriver {
 
       switch (getTagName()) {
         case "label" -> {
-          var forAttribute = rawElement.attribute("for");
+          var forAttribute = element().attribute("for");
           if (forAttribute != null) {
             var forElement = JsoupWebDriver.this.findElement(new By.ById(forAttribute.getValue()));
             forElement.click();
@@ -148,29 +337,29 @@ public class JsoupWebDriver implements WebDriver {
           }
         }
         case "input" -> {
-          switch (rawElement.attr("type")) {
+          switch (element().attr("type")) {
             case "radio" -> {
-              Element form = rawElement.closest("form");
+              Element form = element().closest("form");
               if (form != null) {
                 for (Element siblingInputs : form.getElementsByTag("input")) {
                   if (siblingInputs.attr("type").equals("radio")) {
-                    siblingInputs.attr("checked", false);
+                    page().formState.setChecked(siblingInputs, false);
                   }
                 }
               }
 
-              rawElement.attr("checked", true);
+              page().formState.setChecked(element(), true);
             }
-            case "checkbox" -> rawElement.attr("checked", !rawElement.hasAttr("checked"));
+            case "checkbox" -> page().formState.setChecked(element(), !page().formState.isChecked(element()));
             case "image", "submit" -> submit();
           }
 
           return;
         }
         case "button" -> {
-          var formId = rawElement.attr("form");
+          var formId = element().attr("form");
           if (!formId.isEmpty()) {
-            var form = JsoupWebDriver.this.lastPage.response.getElementById(formId);
+            var form = page().document().getElementById(formId);
             if (form == null) return;
             submitForm((FormElement) form);
           } else {
@@ -179,49 +368,60 @@ public class JsoupWebDriver implements WebDriver {
           return;
         }
         case "option" -> {
-          var select = rawElement.closest("select");
+          var select = element().closest("select");
           if (select == null) return;
           if (select.hasAttr("multiple")) {
-            rawElement.attr("selected", !rawElement.hasAttr("selected"));
+            page().formState.setSelected(element(), !page().formState.isSelected(element()));
           } else {
             var options = select.getElementsByTag("option");
             for (Element option : options) {
-              option.attr("selected", false);
+              page().formState.setSelected(option, false);
             }
-            rawElement.attr("selected", true);
+            page().formState.setSelected(element(), true);
           }
           return;
         }
       }
 
-      var button = rawElement.closest("button");
+      var button = element().closest("button");
       if (button != null) {
-        JsoupWebDriver.this.lastPage.getOrWrapElement(button).click();
+        page().getOrWrapElement(button).click();
         return;
       }
 
-      var href = rawElement.absUrl("href");
+      var href = element().absUrl("href");
       if (!href.isEmpty()) {
         get(href);
         return;
       }
 
-      var anchor = rawElement.closest("a");
+      var anchor = element().closest("a");
       if (anchor == null) return;
       get(anchor.absUrl("href"));
     }
 
     @Override
     public void submit() {
-      var form = rawElement.closest("form");
+      var form = element().closest("form");
       if (form == null) throw new UnsupportedOperationException("Can only submit forms.");
 
       submitForm((FormElement) form);
     }
 
+    CompletableFuture<LoadedPage> submitAsync() {
+      try {
+        var form = element().closest("form");
+        if (form == null) throw new UnsupportedOperationException("Can only submit forms.");
+
+        return loadAsync(formRequest((FormElement) form, page()), false);
+      } catch (RuntimeException e) {
+        return CompletableFuture.failedFuture(e);
+      }
+    }
+
     private void submitForm(FormElement form) {
       try {
-        lastPage = new Page(form.submit().execute().parse());
+        navigate(load(formRequest(form, page()), false));
       } catch (IOException e) {
         throw new RuntimeException(e);
       }
@@ -233,19 +433,17 @@ public class JsoupWebDriver implements WebDriver {
       if (!isEnabled()) throw new InvalidElementStateException("Element is disabled.");
 
       if (keysToSend.length == 1 && (keysToSend[0].equals("\n") || keysToSend[0].equals(Keys.ENTER))) {
-        if (rawElement.closest("form") != null) {
+        if (element().closest("form") != null) {
           submit();
           return;
         }
       }
 
       if (getTagName().equals("textarea") || getTagName().equals("input")) {
-        if (!rawElement.hasAttr(ORIGINAL_VALUE_ATTR)) {
-          var attribute = rawElement.attribute("value");
-          rawElement.attr(ORIGINAL_VALUE_ATTR, attribute == null ? ORIGINAL_VALUE_ATTR : attribute.getValue());
-        }
-        rawElement.attr("value", rawElement.val() + String.join("", keysToSend));
-      } else if (isContentEditable()) rawElement.appendText(String.join("", keysToSend));
+        page().formState.setValue(element(), page().formState.value(element()) + String.join("", keysToSend));
+      } else if (isContentEditable()) {
+        page().formState.setText(element(), page().formState.wholeText(element()) + String.join("", keysToSend));
+      }
     }
 
     @Override
@@ -254,84 +452,90 @@ public class JsoupWebDriver implements WebDriver {
       if (isReadOnly()) throw new InvalidElementStateException("Element is read only.");
 
       String tagName = getTagName();
-      if (tagName.equals("textarea")) rawElement.text("");
-      else if (tagName.equals("input")) clearInput();
-      else if (isContentEditable()) rawElement.text("");
-      else rawElement.val("");
+      if (tagName.equals("input")) {
+        clearInput();
+      } else if (tagName.equals("textarea")) {
+        // The content of a textarea is its value, clearing it also clears its text.
+        page().formState.setValue(element(), "");
+        page().formState.setText(element(), "");
+      } else if (isContentEditable()) {
+        page().formState.setText(element(), "");
+      } else {
+        page().formState.setValue(element(), "");
+      }
     }
 
     private void clearInput() {
-      switch (rawElement.attr("type")) {
-        case "color" -> rawElement.attr("value", "#000000");
+      switch (element().attr("type")) {
+        case "color" -> page().formState.setValue(element(), "#000000");
         case "range" -> {
           var max = getInputMax();
           var min = getInputMin();
           var value = (max + min) / 2 + min;
           String newValue = String.valueOf(value);
           if (value == Math.floor(value)) newValue = Integer.toString((int) value);
-          rawElement.attr("value", newValue);
+          page().formState.setValue(element(), newValue);
         }
-        default -> rawElement.val("");
+        default -> page().formState.setValue(element(), "");
       }
     }
 
     @Override
     public String getTagName() {
-      return rawElement.tagName();
+      return element().tagName();
     }
 
     @Override
     public @Nullable String getDomProperty(String name) {
       return switch (name) {
         case "class" -> null;
-        case "className" -> rawElement.attr("class");
-        case "classList" -> Arrays.stream(rawElement.attr("class").split(" "))
+        case "className" -> element().attr("class");
+        case "classList" -> Arrays.stream(element().attr("class").split(" "))
           .filter(it -> !it.isEmpty())
           .collect(Collectors.joining(", ", "[", "]"));
         case "colspan" -> null;
-        case "colSpan" -> rawElement.attr("colspan");
+        case "colSpan" -> element().attr("colspan");
         case "index" -> {
-          if (!getTagName().equals("option")) yield rawElement.attr(name);
+          if (!getTagName().equals("option")) yield element().attr(name);
 
-          Element select = rawElement.closest("select");
+          Element select = element().closest("select");
           if (select == null) yield null;
-          yield Integer.toString(select.getElementsByTag("option").indexOf(rawElement));
+          yield Integer.toString(select.getElementsByTag("option").indexOf(element()));
         }
-        case "innerHTML" -> rawElement.html();
-        case "innerText", "textContent" -> rawElement.text();
-        case "href" -> rawElement.absUrl("href");
+        case "innerHTML" -> element().html();
+        case "innerText", "textContent" -> page().formState.text(element());
+        case "href" -> element().absUrl("href");
         case "selectedIndex" -> {
-          if (!getTagName().equals("select")) yield rawElement.attr(name);
+          if (!getTagName().equals("select")) yield element().attr(name);
 
-          var options = rawElement.getElementsByTag("option");
+          var options = element().getElementsByTag("option");
           for (int i = 0; i < options.size(); i++) {
             Element option = options.get(i);
-            if (option.hasAttr("selected")) yield Integer.toString(i);
+            if (page().formState.isSelected(option)) yield Integer.toString(i);
           }
           yield "-1";
         }
         case "src" -> {
-          if (!rawElement.hasAttr("src")) yield null;
-          yield rawElement.absUrl("src");
+          if (!element().hasAttr("src")) yield null;
+          yield element().absUrl("src");
         }
         case "value" -> {
           switch (getTagName()) {
             case "textarea", "option" -> {
-              var value = rawElement.attribute("value");
-              if (value != null) yield value.getValue();
+              var value = page().formState.changedValue(element());
+              if (value != null) yield value;
+              var attribute = element().attribute("value");
+              if (attribute != null) yield attribute.getValue();
               else yield getText();
             }
-            case "input" -> {
-              yield rawElement.val();
-            }
             default -> {
-              yield rawElement.attr(name);
+              yield page().formState.value(element());
             }
           }
         }
-        case String attr when (BOOLEAN_ATTRIBUTES.contains(attr)) -> rawElement.hasAttr(name) ? "true" : "false";
+        case String attr when (BOOLEAN_ATTRIBUTES.contains(attr)) -> hasBooleanAttribute(name) ? "true" : "false";
         default -> {
-          var attribute = rawElement.attribute(name);
+          var attribute = element().attribute(name);
           if (attribute != null) yield attribute.getValue();
           yield null;
         }
@@ -342,18 +546,17 @@ public class JsoupWebDriver implements WebDriver {
     public @Nullable String getDomAttribute(String name) {
       String tagName = getTagName();
       if (name.equals("value") && tagName.equals("input")) {
-        if (rawElement.hasAttr(ORIGINAL_VALUE_ATTR)) {
-          var originalValue = rawElement.attr(ORIGINAL_VALUE_ATTR);
-          return originalValue.equals(ORIGINAL_VALUE_ATTR) ? null : originalValue;
-        }
-        var value = rawElement.val();
+        // The document is never modified, so its value is the original one, regardless of typing.
+        var value = element().val();
         if (value.isEmpty()) return null;
         return value;
       }
-      if ("selected".equals(name) && tagName.equals("input")) return rawElement.hasAttr("checked") ? "true" : null;
-      if (BOOLEAN_ATTRIBUTES.contains(name.toLowerCase())) return rawElement.hasAttr(name) ? "true" : null;
+      if ("selected".equals(name) && tagName.equals("input")) {
+        return page().formState.isChecked(element()) ? "true" : null;
+      }
+      if (BOOLEAN_ATTRIBUTES.contains(name.toLowerCase())) return hasBooleanAttribute(name) ? "true" : null;
 
-      Attribute attribute = rawElement.attribute(name);
+      Attribute attribute = element().attribute(name);
       if (attribute == null) return null;
       return attribute.getValue();
     }
@@ -382,65 +585,131 @@ public class JsoupWebDriver implements WebDriver {
     @Override
     public boolean isSelected() {
       String tagName = getTagName();
-      if (tagName.equals("input")) return rawElement.hasAttr("checked");
+      if (tagName.equals("input")) return page().formState.isChecked(element());
       if (tagName.equals("option")) {
-        var selected = rawElement.hasAttr("selected");
+        var selected = page().formState.isSelected(element());
         if (selected) return true;
-        var select = rawElement.closest("select");
+        var select = element().closest("select");
         if (select == null) return false;
         var siblings = select.getElementsByTag("option");
-        if (siblings.indexOf(rawElement) != 0) return false;
+        if (siblings.indexOf(element()) != 0) return false;
         // If no other option is selected and this is the first option then it's selected by default.
-        return siblings.stream().noneMatch(it -> it.hasAttr("selected"));
+        return siblings.stream().noneMatch(page().formState::isSelected);
       }
 
       throw new UnsupportedOperationException("Unsupported element type: " + tagName);
     }
 
+    /**
+     * Returns whether the element has the boolean attribute, with the checked and selected state as changed by the
+     * driver.
+     */
+    private boolean hasBooleanAttribute(String name) {
+      return switch (name.toLowerCase()) {
+        case "checked" -> page().formState.isChecked(element());
+        case "selected" -> page().formState.isSelected(element());
+        default -> element().hasAttr(name);
+      };
+    }
+
     @Override
     public boolean isEnabled() {
-      return !rawElement.hasAttr("disabled");
+      return !element().hasAttr("disabled");
     }
 
     public boolean isReadOnly() {
-      return rawElement.hasAttr("readonly");
+      return element().hasAttr("readonly");
     }
 
     public boolean isContentEditable() {
-      Attribute attribute = rawElement.attribute("contenteditable");
+      Attribute attribute = element().attribute("contenteditable");
       return attribute != null && attribute.getValue().equals("true");
     }
 
     @Override
     public String getText() {
-      if (getTagName().equals("pre")) return rawElement.wholeText();
+      var formState = page().formState;
+      var element = element();
+      var text = this.text;
+      if (text != null && textVersion == formState.textVersion()) return text;
 
-      return rawElement.wholeText().trim().replace(' ', ' ').replace("‎", "");
+      text = renderedText
+        ? RenderedText.text(element, formState)
+        : TextExtractor.text(element, formState, element.nameIs("pre"));
+      this.text = text;
+      this.textVersion = formState.textVersion();
+      return text;
     }
 
     @Override
     public List<WebElement> findElements(By by) {
-      if (by instanceof By.ByXPath byXPath) return findElementsByXPath(byXPath, rawElement);
-      if (by instanceof By.ByName byName && getSelector(byName).isEmpty()) return Collections.emptyList();
+      if (by instanceof By.ByXPath byXPath) return findElementsByXPath(byXPath);
+      if (by instanceof By.ByName byName && getSelector(byName).isEmpty()) return new ArrayList<>();
+
+      var indexed = findIndexed(by);
+      if (indexed != null) return page().getOrWrapElements(indexed);
 
       return findElements(toEvaluator(by));
     }
 
     @Override
     public WebElement findElement(By by) {
-      if (by instanceof By.ByXPath byXPath) {
-        var elements = findElementsByXPath(byXPath, rawElement);
-        if (elements.isEmpty()) throw new NoSuchElementException("No element with selector: " + by);
-        return elements.getFirst();
-      }
+      if (by instanceof By.ByXPath byXPath) return findElementByXPath(byXPath);
 
       if (by instanceof By.ByName byName && getSelector(byName).isEmpty()) {
         throw new NoSuchElementException("No element with selector: " + by);
       }
 
+      var indexed = findIndexed(by);
+      if (indexed != null) {
+        if (indexed.isEmpty()) throw new NoSuchElementException("No element with selector: " + by);
+        return page().getOrWrapElement(indexed.getFirst());
+      }
+
       return findElement(toEvaluator(by), by);
     }
 
+    Map<String, List<WebElement>> findAll(Map<String, By> locators) {
+      Map<String, List<WebElement>> results = new LinkedHashMap<>();
+      List<PendingSearch> pending = new ArrayList<>();
+      for (var locator : locators.entrySet()) {
+        var key = locator.getKey();
+        var by = locator.getValue();
+        var indexed = findIndexed(by);
+        if (indexed != null) {
+          results.put(key, page().getOrWrapElements(indexed));
+        } else if (by instanceof By.ByXPath byXPath) {
+          var evaluator = toXPathEvaluator(byXPath);
+          // Absolute paths may match outside this element, so they can't be part of its traversal.
+          if (evaluator == null || evaluator.isAbsolute() && !(element() instanceof Document)) {
+            results.put(key, findElementsByXPath(byXPath));
+          } else {
+            results.put(key, new ArrayList<>());
+            pending.add(new PendingSearch(key, evaluator, xpathRoot(evaluator)));
+          }
+        } else if (by instanceof By.ByName byName && getSelector(byName).isEmpty()) {
+          results.put(key, new ArrayList<>());
+        } else {
+          results.put(key, new ArrayList<>());
+          pending.add(new PendingSearch(key, toEvaluator(by), element()));
+        }
+      }
+      if (pending.isEmpty()) return results;
+
+      try {
+        element().stream().forEach(element -> {
+          for (PendingSearch search : pending) {
+            if (search.evaluator().matches(search.root(), element)) search.matches().add(element);
+          }
+        });
+      } finally {
+        // Clear what the evaluators memoized about this page.
+        for (PendingSearch search : pending) EvaluatorCache.clearMemo(search.evaluator());
+      }
+      for (PendingSearch search : pending) results.put(search.key(), page().getOrWrapElements(search.matches()));
+      return results;
+    }
+
     @Override
     public SearchContext getShadowRoot() {
       return WebElement.super.getShadowRoot();
@@ -448,7 +717,7 @@ public class JsoupWebDriver implements WebDriver {
 
     @Override
     public boolean isDisplayed() {
-      return false;
+      return page().visibility().isDisplayed(element());
     }
 
     @Override
@@ -468,7 +737,8 @@ public class JsoupWebDriver implements WebDriver {
 
     @Override
     public String getCssValue(String propertyName) {
-      return "";
+      if (!computedStyles) return "";
+      return page().cssCascade().value(element(), propertyName);
     }
 
     @Override
@@ -483,33 +753,101 @@ public class JsoupWebDriver implements WebDriver {
 
     @Override
     public boolean equals(Object o) {
+      if (this == o) return true;
       if (o == null || getClass() != o.getClass()) return false;
       JsoupWebElement that = (JsoupWebElement) o;
-      return Objects.equals(rawElement, that.rawElement);
+      var element = retainedElement();
+      return element != null && element == that.retainedElement();
     }
 
     @Override
     public int hashCode() {
-      return Objects.hashCode(rawElement);
+      return hashCode;
+    }
+
+    /**
+     * Looks up id, name, tag, class and link text locators in the page index when searching from the root, or returns
+     * null if the locator has to be evaluated.
+     */
+    private @Nullable List<Element> findIndexed(By by) {
+      if (!(element() instanceof Document) || !(by instanceof By.Remotable byRemotable)) return null;
+
+      var selector = getSelector(byRemotable);
+      if (selector.isEmpty()) return null;
+
+      return switch (by) {
+        case By.ById ignored -> page().index().byId(selector);
+        case By.ByName ignored -> page().index().byName(selector);
+        case By.ByTagName ignored -> page().index().byTag(selector);
+        case By.ByClassName ignored -> page().index().byClass(selector);
+        case By.ByLinkText ignored -> page().index().byLinkText(selector);
+        case By.ByPartialLinkText ignored -> page().index().byPartialLinkText(selector);
+        default -> null;
+      };
     }
 
     private List<WebElement> findElements(Evaluator evaluator) {
-      var elements = rawElement.select(new NotRootWrappingEvaluator(evaluator));
-      return lastPage.getOrWrapElements(elements);
+      Elements elements;
+      try {
+        elements = element().select(evaluator);
+      } finally {
+        EvaluatorCache.clearMemo(evaluator);
+      }
+      return page().getOrWrapElements(elements);
     }
 
+    /**
+     * Stops the traversal at the first match, without collecting the other matches.
+     */
     private WebElement findElement(Evaluator evaluator, By selector) {
-      var element = rawElement.selectFirst(new NotRootWrappingEvaluator(evaluator));
+      @Nullable Element element;
+      try {
+        element = element().selectFirst(evaluator);
+      } finally {
+        EvaluatorCache.clearMemo(evaluator);
+      }
       if (element == null) throw new NoSuchElementException("No element with selector: " + selector);
-      return lastPage.getOrWrapElement(element);
+      return page().getOrWrapElement(element);
+    }
+
+    private List<WebElement> findElementsByXPath(By.ByXPath byXPath) {
+      var evaluator = toXPathEvaluator(byXPath);
+      if (evaluator != null) return page().getOrWrapElements(xpathRoot(evaluator).select(evaluator));
+
+      try {
+        return page().getOrWrapElements(page().xpathSearch().selectAll(getSelector(byXPath), element()));
+      } catch (Selector.SelectorParseException e) {
+        throw new InvalidSelectorException("Invalid selector: " + byXPath, e);
+      }
     }
 
-    private List<WebElement> findElementsByXPath(By.ByXPath byXPath, Element document) {
+    private WebElement findElementByXPath(By.ByXPath byXPath) {
+      var evaluator = toXPathEvaluator(byXPath);
+      if (evaluator != null) {
+        var element = xpathRoot(evaluator).selectFirst(evaluator);
+        if (element == null) throw new NoSuchElementException("No element with selector: " + byXPath);
+        return page().getOrWrapElement(element);
+      }
+
+      Element element;
       try {
-        return lastPage.getOrWrapElements(document.selectXpath(getSelector(byXPath)));
+        element = page().xpathSearch().selectFirst(getSelector(byXPath), element());
       } catch (Selector.SelectorParseException e) {
         throw new InvalidSelectorException("Invalid selector: " + byXPath, e);
       }
+      if (element == null) throw new NoSuchElementException("No element with selector: " + byXPath);
+      return page().getOrWrapElement(element);
+    }
+
+    /**
+     * Returns the element to select from with a native XPath evaluator. Like with the W3C DOM, relative paths from the
+     * document start at its root element.
+     */
+    private Element xpathRoot(XPathEvaluator evaluator) {
+      if (evaluator.isAbsolute()) return page().document();
+
+      var rootElement = element() instanceof Document ? element().firstElementChild() : null;
+      return rootElement != null ? rootElement : element();
     }
 
     private double getInputMin() {
@@ -542,11 +880,12 @@ public class JsoupWebDriver implements WebDriver {
     public void addCookie(Cookie cookie) {
       String domain = cookie.getDomain();
       if (domain == null) {
-        domain = lastPage.response.connection().request().url().getHost();
+        domain = getCurrentUri().getHost();
       }
       HttpCookie javaCookie = seleniumCookieToHttpCookie(cookie, domain);
 
-      lastPage.response.connection().cookieStore().add(URI.create(domain), javaCookie);
+      cookieManager.getCookieStore().add(URI.create(domain), javaCookie);
+      sessionChanged();
     }
 
     private static HttpCookie seleniumCookieToHttpCookie(Cookie cookie, String domain) {
@@ -574,7 +913,7 @@ public class JsoupWebDriver implements WebDriver {
     public void deleteCookieNamed(String name) {
       if (name.isBlank()) throw new IllegalArgumentException("Cookie name cannot be blank.");
 
-      CookieStore cookieStore = lastPage.response.connection().cookieStore();
+      CookieStore cookieStore = cookieManager.getCookieStore();
       URI uri = getCurrentUri();
 
       Optional<HttpCookie> cookie = cookieStore.get(uri)
@@ -583,6 +922,7 @@ public class JsoupWebDriver implements WebDriver {
 
       if (cookie.isEmpty()) return;
       cookieStore.remove(uri, cookie.get());
+      sessionChanged();
     }
 
     @Override
@@ -593,15 +933,23 @@ public class JsoupWebDriver implements WebDriver {
     @Override
     public void deleteAllCookies() {
       URI uri = getCurrentUri();
-      CookieStore cookieStore = lastPage.response.connection().cookieStore();
+      CookieStore cookieStore = cookieManager.getCookieStore();
       for (HttpCookie cookie : cookieStore.get(uri)) {
         cookieStore.remove(uri, cookie);
       }
+      sessionChanged();
+    }
+
+    /**
+     * Drops the prefetched pages, since they were fetched with the old cookies.
+     */
+    private void sessionChanged() {
+      if (prefetcher != null) prefetcher.clear();
     }
 
     @Override
     public Set<Cookie> getCookies() {
-      return lastPage.response.connection().cookieStore().getCookies().stream()
+      return cookieManager.getCookieStore().getCookies().stream()
         .map(JsoupWebDriverOptions::httpCookieToSeleniumCookie).collect(Collectors.toSet());
     }
 
@@ -610,7 +958,7 @@ public class JsoupWebDriver implements WebDriver {
       if (name.isBlank()) throw new IllegalArgumentException("Cookie name cannot be blank.");
 
       URI uri = getCurrentUri();
-      CookieStore cookieStore = lastPage.response.connection().cookieStore();
+      CookieStore cookieStore = cookieManager.getCookieStore();
       Optional<HttpCookie> cookie = cookieStore.get(uri).stream()
         .filter(it -> uri.getPath().startsWith(it.getPath()))
         .filter(it -> it.getName().equals(name)).findFirst();
@@ -756,28 +1104,291 @@ public class JsoupWebDriver implements WebDriver {
 
     @Override
     public void refresh() {
+      var request = lastPage.request;
+      if (request == null) return;
+
       try {
-        lastPage = new Page(lastPage.response.connection().newRequest().execute().parse());
+        navigate(load(request, false));
       } catch (IOException e) {
         throw new RuntimeException(e);
       }
     }
   }
 
+  /**
+   * Clears the session, the cookies and the current page, so the driver can be handed to someone else.
+   */
+  void reset() {
+    cookieManager.getCookieStore().removeAll();
+    navigate(blankPage());
+  }
+
+  private void navigate(Page page) {
+    lastPage.retire();
+    lastPage = page;
+    if (prefetcher == null) return;
+    // The links of a lazily parsed page are prefetched once it's parsed, rather than parsing it just for them.
+    if (page.isParsed()) {
+      prefetchLinks(prefetcher, page);
+    } else {
+      prefetcher.clear();
+    }
+  }
+
+  /**
+   * Waits for the links of the current page to be prefetched, so tests don't depend on timing.
+   */
+  void awaitPrefetches() {
+    if (prefetcher != null) prefetcher.awaitRound();
+  }
+
+  private static void prefetchLinks(Prefetcher prefetcher, Page page) {
+    Set<URI> targets = new LinkedHashSet<>();
+    if (isHttp(page.url)) {
+      for (Element link : page.document().select(prefetcher.linkSelector())) {
+        var href = link.absUrl("href");
+        if (href.isEmpty()) continue;
+        try {
+          var target = toRequestUri(href);
+          if (isSameOrigin(target, page.url) && !target.equals(page.url)) targets.add(target);
+        } catch (IllegalArgumentException e) {
+          // Not a link that could be followed.
+        }
+      }
+    }
+    prefetcher.prefetch(targets);
+  }
+
+  private static boolean isHttp(URI uri) {
+    return "http".equalsIgnoreCase(uri.getScheme()) || "https".equalsIgnoreCase(uri.getScheme());
+  }
+
+  private static boolean isSameOrigin(URI uri, URI other) {
+    return uri.getScheme().equalsIgnoreCase(other.getScheme())
+      && Objects.equals(uri.getHost(), other.getHost())
+      && uri.getPort() == other.getPort();
+  }
+
   private URI getCurrentUri() {
+    return lastPage.url;
+  }
+
+  private Page blankPage() {
+    return new Page(Document.createShell("http://invalid.localhost"), URI.create("about:blank"), null);
+  }
+
+  /**
+   * Executes the request, following redirects and keeping track of cookies, and parses the final response.
+   */
+  private Page load(TransportRequest request, boolean ignoreHttpErrors) throws IOException {
+    for (int redirects = 0; ; redirects++) {
+      var cache = request.method().equals("GET") ? documentCache : null;
+      if (cache != null) {
+        var cached = cache.getFresh(request.uri());
+        if (cached != null) return new Page(cached, request.uri(), request);
+      }
+
+      var conditional = cache == null ? request : cache.conditional(request);
+      TransportResponse response = transport.execute(withCookies(conditional));
+      cookieManager.put(request.uri(), response.headers());
+
+      if (cache != null && response.statusCode() == 304) {
+        var revalidated = cache.revalidate(request.uri(), response);
+        if (revalidated != null) {
+          discard(response);
+          return new Page(revalidated, request.uri(), request);
+        }
+        if (conditional != request) {
+          // The entry was evicted while the request was in flight, so ask for the full response instead.
+          discard(response);
+          response = transport.execute(withCookies(request));
+          cookieManager.put(request.uri(), response.headers());
+        }
+      }
+
+      String location = response.header("Location");
+      if (isRedirect(response.statusCode()) && location != null) {
+        discard(response);
+        if (redirects >= MAX_REDIRECTS) {
+          throw new IOException("Too many redirects occurred trying to load URL " + request.uri());
+        }
+        URI target = withoutFragment(request.uri().resolve(toUri(location)));
+        request = redirectRequest(request, response.statusCode(), target);
+        continue;
+      }
+
+      if (!ignoreHttpErrors && response.statusCode() >= 400) {
+        discard(response);
+        throw new HttpStatusException("HTTP error fetching URL", response.statusCode(), request.uri().toString());
+      }
+
+      String contentType = response.header("Content-Type");
+      if (cache != null) {
+        if (DocumentCache.isCacheable(response)) {
+          try (InputStream body = response.body()) {
+            var document = parse(body, contentType, response.uri().toString());
+            cache.store(request.uri(), response, document);
+            return new Page(document, request.uri(), request);
+          }
+        }
+        cache.recordMiss();
+      }
+
+      if (lazyParsing) {
+        try (InputStream body = response.body()) {
+          return new Page(new RawResponse(body.readAllBytes(), contentType, response.uri().toString()), request);
+        }
+      }
+
+      try (InputStream body = response.body()) {
+        return new Page(parse(body, contentType, response.uri().toString()), request.uri(), request);
+      }
+    }
+  }
+
+  /**
+   * Reads the remainder of an unused response, so a streaming transport can reuse the connection.
+   */
+  private static void discard(TransportResponse response) throws IOException {
+    try (InputStream body = response.body()) {
+      body.transferTo(OutputStream.nullOutputStream());
+    }
+  }
+
+  private TransportRequest withCookies(TransportRequest request) throws IOException {
+    List<String> cookies = cookieManager.get(request.uri(), Map.of()).getOrDefault("Cookie", List.of());
+    if (cookies.isEmpty()) return request;
+    return request.withHeader("Cookie", String.join("; ", cookies));
+  }
+
+  private static boolean isRedirect(int statusCode) {
+    return statusCode == 301 || statusCode == 302 || statusCode == 303 || statusCode == 307 || statusCode == 308;
+  }
+
+  private static TransportRequest redirectRequest(TransportRequest request, int statusCode, URI location) {
+    // Like browsers, only 307 and 308 preserve the method and body, all other redirects are followed with a GET.
+    if (statusCode == 307 || statusCode == 308) {
+      return new TransportRequest(request.method(), location, request.headers(), request.body());
+    }
+    return TransportRequest.get(location);
+  }
+
+  /**
+   * Parses the response body as it's read, so with a streaming transport parsing overlaps with the transfer.
+   */
+  static Document parse(InputStream body, @Nullable String contentType, String baseUri) throws IOException {
+    Parser parser = contentType != null && XML_CONTENT_TYPE.matcher(contentType).matches()
+      ? Parser.xmlParser()
+      : Parser.htmlParser();
+    return Jsoup.parse(body, getCharsetFromContentType(contentType), baseUri, parser);
+  }
+
+  private static @Nullable String getCharsetFromContentType(@Nullable String contentType) {
+    if (contentType == null) return null;
+
+    Matcher matcher = CHARSET_PATTERN.matcher(contentType);
+    if (!matcher.find()) return null;
+
+    String charset = matcher.group(1).trim().replace("charset=", "");
     try {
-      return lastPage.response.connection().request().url().toURI();
+      return Charset.isSupported(charset) ? charset : null;
+    } catch (IllegalCharsetNameException e) {
+      return null;
+    }
+  }
+
+  private static TransportRequest formRequest(FormElement form, Page page) {
+    String action = form.hasAttr("action") ? form.absUrl("action") : form.baseUri();
+    if (action.isEmpty()) throw new IllegalArgumentException("Could not determine a form action URL for submit.");
+
+    var formData = page.formData(form);
+    URI actionUri = toRequestUri(action);
+    if (!form.attr("method").equalsIgnoreCase("POST")) {
+      byte[] body = formData.urlEncoded(page.formState);
+      if (body.length == 0) return TransportRequest.get(actionUri);
+      String encoded = new String(body, US_ASCII);
+      String query = actionUri.getRawQuery() == null ? encoded : actionUri.getRawQuery() + "&" + encoded;
+      return TransportRequest.get(URI.create(withoutQuery(actionUri) + "?" + query));
+    }
+
+    if (form.attr("enctype").equalsIgnoreCase("multipart/form-data")) {
+      String boundary = "----JsoupWebDriverBoundary" + Long.toHexString(ThreadLocalRandom.current().nextLong());
+      return new TransportRequest("POST", actionUri,
+        Map.of("Content-Type", List.of("multipart/form-data; boundary=" + boundary)),
+        formData.multipart(page.formState, boundary));
+    }
+
+    return new TransportRequest("POST", actionUri,
+      Map.of("Content-Type", List.of("application/x-www-form-urlencoded; charset=UTF-8")),
+      formData.urlEncoded(page.formState));
+  }
+
+  private static String withoutQuery(URI uri) {
+    String string = uri.toString();
+    int query = string.indexOf('?');
+    return query == -1 ? string : string.substring(0, query);
+  }
+
+  /**
+   * Converts an absolute http(s) url to a URI that can be requested, i.e. without fragment.
+   */
+  private static URI toRequestUri(String url) {
+    URI uri = toUri(url);
+    if (!uri.isAbsolute()) throw new IllegalArgumentException("Malformed URL: " + url);
+    if (!"http".equalsIgnoreCase(uri.getScheme()) && !"https".equalsIgnoreCase(uri.getScheme())) {
+      throw new IllegalArgumentException("Only http & https protocols supported: " + url);
+    }
+    return withoutFragment(uri);
+  }
+
+  private static URI withoutFragment(URI uri) {
+    if (uri.getRawFragment() == null) return uri;
+    String string = uri.toString();
+    return URI.create(string.substring(0, string.indexOf('#')));
+  }
+
+  /**
+   * Parses a url, escaping characters that are not allowed in URIs but are commonly found in hrefs, such as spaces.
+   */
+  private static URI toUri(String url) {
+    try {
+      return new URI(url.trim());
     } catch (URISyntaxException e) {
-      throw new RuntimeException(e);
+      try {
+        return new URI(escapeUnsafeCharacters(url.trim()));
+      } catch (URISyntaxException ex) {
+        throw new IllegalArgumentException("Malformed URL: " + url, ex);
+      }
     }
   }
 
-  private Evaluator toEvaluator(By by) {
+  private static String escapeUnsafeCharacters(String url) {
+    var escaped = new StringBuilder(url.length() + 16);
+    for (byte b : url.getBytes(UTF_8)) {
+      int c = b & 0xff;
+      if (c > ' ' && c < 0x7f && "\"<>\\^`{|}".indexOf(c) == -1) escaped.append((char) c);
+      else escaped.append('%').append(HEX[c >> 4]).append(HEX[c & 0xf]);
+    }
+    return escaped.toString();
+  }
+
+  /**
+   * Returns the evaluator for the locator, wrapped so it doesn't match the element the search starts from. Its memo
+   * must be cleared with {@link EvaluatorCache#clearMemo(Evaluator)} after each search.
+   */
+  private static Evaluator toEvaluator(By by) {
     if (!(by instanceof By.Remotable byRemotable)) throw new InvalidSelectorException("Invalid selector: " + by);
 
     var selector = getSelector(byRemotable);
     if (selector.isEmpty()) throw new InvalidSelectorException("Invalid selector: " + by);
 
+    if (by instanceof By.ByCssSelector && EvaluatorCache.isStructural(selector)) {
+      return new NotRootWrappingEvaluator(parseCss(selector));
+    }
+    return EVALUATOR_CACHE.get(by.getClass(), selector, () -> new NotRootWrappingEvaluator(compile(by, selector)));
+  }
+
+  private static Evaluator compile(By by, String selector) {
     return switch (by) {
       case By.ById ignored -> new Evaluator.Id(selector);
       case By.ByTagName ignored -> new Evaluator.Tag(selector);
@@ -790,32 +1401,422 @@ public class JsoupWebDriver implements WebDriver {
     };
   }
 
+  /**
+   * Returns the native evaluator for the XPath locator, or null if the expression has to be evaluated on the W3C DOM.
+   */
+  private static @Nullable XPathEvaluator toXPathEvaluator(By.ByXPath byXPath) {
+    var selector = getSelector(byXPath);
+    var evaluator = EVALUATOR_CACHE.get(By.ByXPath.class, selector,
+      () -> Objects.requireNonNullElse(XPathEvaluator.compile(selector), UNSUPPORTED_XPATH));
+    return evaluator instanceof XPathEvaluator xpathEvaluator ? xpathEvaluator : null;
+  }
+
+  /**
+   * A locator in a batch search, collecting its matches during the traversal.
+   */
+  private record PendingSearch(String key, Evaluator evaluator, Element root, List<Element> matches) {
+    private PendingSearch(String key, Evaluator evaluator, Element root) {
+      this(key, evaluator, root, new ArrayList<>());
+    }
+  }
+
   private static String getSelector(By.Remotable byRemotable) {
     return byRemotable.getRemoteParameters().value().toString();
   }
 
-  private class Page {
-    public final Document response;
-    public final JsoupWebElement rootElement;
-    private final Map<Element, JsoupWebElement> elements = new HashMap<>();
+  /**
+   * A page loaded in the background by {@link #getAsync(String)} or {@link #submitAsync(WebElement)}.
+   */
+  public final class LoadedPage {
+    private final Page page;
+
+    private LoadedPage(Page page) {
+      this.page = page;
+    }
+
+    public String getUrl() {
+      return page.url.toString();
+    }
+
+    /**
+     * Makes this the current page of the driver, as if it had been navigated to. Like all navigation, this must be
+     * called from the thread using the driver.
+     */
+    public void commit() {
+      if (lastPage != page) navigate(page);
+    }
+  }
 
-    private Page(Document response) {
+  /**
+   * A loaded page. With lazy parsing the page starts out as the raw response and is only parsed when the DOM is first
+   * needed.
+   */
+  private class Page {
+    public final URI url;
+    /**
+     * The request that resulted in this page, used to refresh it.
+     */
+    public final @Nullable TransportRequest request;
+    private @Nullable RawResponse rawResponse;
+    private @Nullable Document response;
+    private @Nullable JsoupWebElement rootElement;
+    private ElementStore<JsoupWebElement> elements = new ElementStore<>();
+    /**
+     * The form state as changed by the driver, the document itself is never modified.
+     */
+    private final FormState formState = new FormState();
+    private @Nullable DocumentIndex index;
+    private @Nullable XPathSearch xpathSearch;
+    private @Nullable Visibility visibility;
+    private @Nullable CssCascade cssCascade;
+    private @Nullable ElementStore<FormData> forms;
+
+    private Page(Document response, URI url, @Nullable TransportRequest request) {
       this.response = response;
-      this.rootElement = new JsoupWebElement(response);
+      this.url = url;
+      this.request = request;
+    }
+
+    private Page(RawResponse rawResponse, TransportRequest request) {
+      this.rawResponse = rawResponse;
+      this.url = request.uri();
+      this.request = request;
+    }
+
+    public Document document() {
+      var document = response;
+      if (document != null) return document;
+
+      var raw = Objects.requireNonNull(rawResponse);
+      try {
+        document = parse(new ByteArrayInputStream(raw.body()), raw.contentType(), raw.baseUri());
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      response = document;
+      rawResponse = null;
+      if (prefetcher != null && lastPage == this) prefetchLinks(prefetcher, this);
+      return document;
+    }
+
+    public boolean isParsed() {
+      return response != null;
+    }
+
+    public JsoupWebElement root() {
+      var root = rootElement;
+      if (root == null) {
+        root = new JsoupWebElement(this, document());
+        rootElement = root;
+      }
+      return root;
+    }
+
+    /**
+     * Returns the source as it was received if the page hasn't been parsed yet, otherwise the serialized DOM.
+     */
+    public String pageSource() {
+      var raw = rawResponse;
+      if (raw != null) {
+        String source = raw.decode();
+        if (source != null) return source;
+      }
+      return document().outerHtml();
+    }
+
+    public DocumentIndex index() {
+      var index = this.index;
+      if (index == null) {
+        index = new DocumentIndex(document());
+        this.index = index;
+      }
+      return index;
+    }
+
+    public XPathSearch xpathSearch() {
+      var xpathSearch = this.xpathSearch;
+      if (xpathSearch == null) {
+        xpathSearch = new XPathSearch(document(), xpathCompiler);
+        this.xpathSearch = xpathSearch;
+      }
+      return xpathSearch;
+    }
+
+    public Visibility visibility() {
+      var visibility = this.visibility;
+      if (visibility == null) {
+        visibility = new Visibility(document(), computedStyles ? cssCascade() : null);
+        this.visibility = visibility;
+      }
+      return visibility;
+    }
+
+    public CssCascade cssCascade() {
+      var cssCascade = this.cssCascade;
+      if (cssCascade == null) {
+        cssCascade = new CssCascade(document());
+        this.cssCascade = cssCascade;
+      }
+      return cssCascade;
+    }
+
+    /**
+     * Returns the controls of the form to submit, collected on its first submission.
+     */
+    public FormData formData(FormElement form) {
+      var forms = this.forms;
+      if (forms == null) {
+        forms = new ElementStore<>();
+        this.forms = forms;
+      }
+      var formData = forms.get(form);
+      if (formData == null) {
+        formData = new FormData(form);
+        forms.put(form, formData);
+      }
+      return formData;
     }
 
     public JsoupWebElement getOrWrapElement(Element element) {
-      return elements.computeIfAbsent(element, JsoupWebElement::new);
+      var wrapper = elements.get(element);
+      if (wrapper == null) {
+        wrapper = new JsoupWebElement(this, element);
+        elements.put(element, wrapper);
+      }
+      return wrapper;
+    }
+
+    /**
+     * Returns a mutable list of the elements that wraps each one when it's first accessed, like the lists of other
+     * drivers it can be changed by the caller. Unless old pages are retained, the elements are wrapped right away
+     * instead, as the list would keep the page in memory.
+     */
+    public List<WebElement> getOrWrapElements(List<Element> elements) {
+      if (pageRetention != PageRetention.STRONG) {
+        var wrappers = new ArrayList<WebElement>(elements.size());
+        for (Element element : elements) wrappers.add(getOrWrapElement(element));
+        return wrappers;
+      }
+      return new WrappingList(elements);
+    }
+
+    /**
+     * Releases the elements of the page after navigating away from it, as far as the retention policy allows. The page
+     * starts over with new wrappers if it becomes the current page again, e.g. by committing a loaded page twice.
+     */
+    public void retire() {
+      if (pageRetention == PageRetention.STRONG) return;
+
+      elements.forEach(wrapper -> wrapper.retire(pageRetention));
+      var root = rootElement;
+      if (root != null) root.retire(pageRetention);
+      elements = new ElementStore<>();
+      rootElement = null;
+    }
+
+    /**
+     * Wraps the elements as they're accessed. The elements may be shared, e.g. by the {@link DocumentIndex}, so the
+     * first change wraps them all into a list of its own.
+     */
+    private class WrappingList extends AbstractList<WebElement> implements RandomAccess {
+      private final List<Element> elements;
+      private @Nullable ArrayList<WebElement> changed;
+
+      private WrappingList(List<Element> elements) {
+        this.elements = elements;
+      }
+
+      @Override
+      public WebElement get(int index) {
+        var changed = this.changed;
+        return changed != null ? changed.get(index) : getOrWrapElement(elements.get(index));
+      }
+
+      @Override
+      public int size() {
+        var changed = this.changed;
+        return changed != null ? changed.size() : elements.size();
+      }
+
+      @Override
+      public WebElement set(int index, WebElement element) {
+        return changed().set(index, element);
+      }
+
+      @Override
+      public void add(int index, WebElement element) {
+        changed().add(index, element);
+        modCount++;
+      }
+
+      @Override
+      public WebElement remove(int index) {
+        var removed = changed().remove(index);
+        modCount++;
+        return removed;
+      }
+
+      private ArrayList<WebElement> changed() {
+        var changed = this.changed;
+        if (changed == null) {
+          changed = new ArrayList<>(elements.size());
+          for (Element element : elements) changed.add(getOrWrapElement(element));
+          this.changed = changed;
+        }
+        return changed;
+      }
+    }
+  }
+
+  /**
+   * An unparsed response body.
+   */
+  private record RawResponse(byte[] body, @Nullable String contentType, String baseUri) {
+    /**
+     * Decodes the body without parsing it, or returns null if the charset can't be determined up front.
+     */
+    private @Nullable String decode() {
+      String charset = getCharsetFromContentType(contentType);
+      if (charset == null) {
+        // Without a declared charset, the parser has to sniff the BOM and meta tags.
+        if (!isAscii(body)) return null;
+        charset = "US-ASCII";
+      }
+      return new String(body, Charset.forName(charset));
+    }
+
+    private static boolean isAscii(byte[] bytes) {
+      for (byte b : bytes) {
+        if (b < 0) return false;
+      }
+      return true;
+    }
+  }
+
+  public static class Builder {
+    private @Nullable Transport transport;
+    private boolean lazyParsing = false;
+    private @Nullable DocumentCache documentCache;
+    private PageRetention pageRetention = PageRetention.STRONG;
+    private @Nullable PrefetchPolicy prefetchPolicy;
+    private boolean renderedText = false;
+    private boolean computedStyles = false;
+
+    private Builder() {
+    }
+
+    /**
+     * Sets the transport used for all requests, by default an {@link HttpClientTransport}.
+     */
+    public Builder transport(Transport transport) {
+      this.transport = transport;
+      return this;
+    }
+
+    /**
+     * Defers parsing a page until its DOM is first queried. This saves the parsing when a page is only loaded to follow
+     * a redirect or set cookies, but buffers the complete response instead of streaming it into the parser. Until the
+     * page is parsed, {@link JsoupWebDriver#getPageSource()} returns the source as received rather than the serialized
+     * DOM.
+     */
+    public Builder lazyParsing(boolean lazyParsing) {
+      this.lazyParsing = lazyParsing;
+      return this;
+    }
+
+    /**
+     * Caches the documents of GET requests according to their caching headers, see {@link DocumentCache}. Disabled by
+     * default.
+     */
+    public Builder documentCache(@Nullable DocumentCache documentCache) {
+      this.documentCache = documentCache;
+      return this;
+    }
+
+    /**
+     * Sets whether elements of old pages keep the pages in memory, see {@link PageRetention}. Long crawls with a single
+     * driver should use {@link PageRetention#SOFT} or {@link PageRetention#WEAK}. By default old pages are retained.
+     */
+    public Builder pageRetention(PageRetention pageRetention) {
+      this.pageRetention = pageRetention;
+      return this;
+    }
+
+    /**
+     * Prefetches the links of every page in the background, see {@link PrefetchPolicy}, so following one of them is
+     * served without waiting for the request. Only GET requests are sent. Disabled by default.
+     */
+    public Builder prefetch(@Nullable PrefetchPolicy prefetchPolicy) {
+      this.prefetchPolicy = prefetchPolicy;
+      return this;
+    }
+
+    /**
+     * Makes {@link WebElement#getText()} approximate the text as a browser renders it rather than return the text of
+     * all descendants: scripts, styles and hidden elements are left out, whitespace is collapsed and block elements
+     * start a new line. Only the {@code style} attribute is considered, not style sheets. Disabled by default.
+     */
+    public Builder renderedText(boolean renderedText) {
+      this.renderedText = renderedText;
+      return this;
+    }
+
+    /**
+     * Makes {@link WebElement#getCssValue(String)} compute {@code display}, {@code visibility}, {@code color} and
+     * {@code font-weight} from the {@code <style>} elements and {@code style} attributes of the page, see
+     * {@link CssCascade}. Other properties are always empty. {@link WebElement#isDisplayed()} then uses the computed
+     * {@code display} and {@code visibility} too. Disabled by default.
+     */
+    public Builder computedStyles(boolean computedStyles) {
+      this.computedStyles = computedStyles;
+      return this;
+    }
+
+    boolean hasDocumentCache() {
+      return documentCache != null;
+    }
+
+    /**
+     * Returns a builder with the same options, which can be changed without affecting this one.
+     */
+    Builder copy() {
+      var copy = new Builder();
+      copy.transport = transport;
+      copy.lazyParsing = lazyParsing;
+      copy.documentCache = documentCache;
+      copy.pageRetention = pageRetention;
+      copy.prefetchPolicy = prefetchPolicy;
+      copy.renderedText = renderedText;
+      copy.computedStyles = computedStyles;
+      return copy;
+    }
+
+    /**
+     * Creates the default transport now if none is set, so all drivers built from here on share it. Returns the created
+     * transport, which the caller must close, or null if the builder already had one.
+     */
+    @Nullable HttpClientTransport shareTransport() {
+      if (transport != null) return null;
+
+      var created = new HttpClientTransport();
+      transport = created;
+      return created;
     }
 
-    public List<WebElement> getOrWrapElements(Elements elements) {
-      return elements.stream()
-        .map(element -> (WebElement) this.elements.computeIfAbsent(element, JsoupWebElement::new))
-        .collect(Collectors.toList());
+    public JsoupWebDriver build() {
+      return new JsoupWebDriver(this);
     }
   }
 
-  private static final String ORIGINAL_VALUE_ATTR = "__jsoupwebdriver_original_value";
+  private static final EvaluatorCache EVALUATOR_CACHE = new EvaluatorCache(1024);
+  /**
+   * Cached for XPath expressions outside the subset supported by {@link XPathEvaluator}.
+   */
+  private static final Evaluator UNSUPPORTED_XPATH = new Evaluator.AllElements();
+  private static final int MAX_REDIRECTS = 20;
+  private static final Pattern XML_CONTENT_TYPE = Pattern.compile("(\\w+)/\\w*\\+?xml.*");
+  private static final Pattern CHARSET_PATTERN = Pattern.compile("(?i)\\bcharset=\\s*(?:[\"'])?([^\\s,;\"']*)");
+  private static final char[] HEX = "0123456789ABCDEF".toCharArray();
   private static final List<String> BOOLEAN_ATTRIBUTES = Arrays.asList("async", "autofocus", "autoplay", "checked",
     "compact", "complete", "controls", "declare", "defaultchecked", "defaultselected", "defer", "disabled",
     "draggable", "ended", "formnovalidate", "hidden", "indeterminate", "iscontenteditable", "ismap", "itemscope",
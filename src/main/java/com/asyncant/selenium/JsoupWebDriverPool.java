@@ -0,0 +1,122 @@
+package com.asyncant.selenium;
+
+import com.asyncant.selenium.transport.HttpClientTransport;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A pool of drivers for tests running in parallel. A driver is not thread-safe, so each thread borrows one, uses it
+ * exclusively and returns it. Returned drivers are reset, the next borrower starts without cookies on a blank page.
+ * <p>
+ * All drivers of the pool share one transport, so warm connections are reused across borrowers. Drivers are created
+ * on demand up to the maximum size, borrowing blocks while all of them are in use. A transport created by the pool is
+ * closed with it, once all drivers are released.
+ */
+@NullMarked
+public class JsoupWebDriverPool implements AutoCloseable {
+  private final JsoupWebDriver.Builder builder;
+  /**
+   * The transport created for the drivers, if the builder had none.
+   */
+  private final @Nullable HttpClientTransport ownTransport;
+  private final AtomicBoolean transportClosed = new AtomicBoolean();
+  private final Semaphore permits;
+  private final Queue<JsoupWebDriver> idle = new ConcurrentLinkedQueue<>();
+  private final Set<JsoupWebDriver> borrowed = ConcurrentHashMap.newKeySet();
+  private volatile boolean closed;
+
+  public JsoupWebDriverPool(int maxSize) {
+    this(maxSize, JsoupWebDriver.builder());
+  }
+
+  /**
+   * Creates a pool of drivers built with the options of the builder, which is copied, so it can be changed or reused
+   * afterwards. The builder's transport is shared by all drivers, if it has none a shared {@link HttpClientTransport}
+   * is used, which the drivers don't own, so it stays open until the pool closes it. The builder must not have a
+   * {@link DocumentCache}, since its entries aren't keyed by session and one borrower's pages would be served to
+   * another.
+   */
+  public JsoupWebDriverPool(int maxSize, JsoupWebDriver.Builder builder) {
+    if (maxSize < 1) throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+    if (builder.hasDocumentCache()) {
+      throw new IllegalArgumentException("Pooled drivers can't share a document cache between sessions");
+    }
+
+    this.builder = builder.copy();
+    this.ownTransport = this.builder.shareTransport();
+    this.permits = new Semaphore(maxSize);
+  }
+
+  /**
+   * Borrows a driver, waiting until one is available.
+   */
+  public JsoupWebDriver borrow() throws InterruptedException {
+    permits.acquire();
+    return checkOut();
+  }
+
+  /**
+   * Borrows a driver, waiting at most the given time until one is available.
+   */
+  public JsoupWebDriver borrow(Duration timeout) throws InterruptedException, TimeoutException {
+    if (!permits.tryAcquire(timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+      throw new TimeoutException("No driver available within " + timeout);
+    }
+    return checkOut();
+  }
+
+  /**
+   * Returns a borrowed driver to the pool. It must not be used by the borrower afterwards.
+   */
+  public void release(JsoupWebDriver driver) {
+    if (!borrowed.remove(driver)) throw new IllegalArgumentException("Driver was not borrowed from this pool");
+
+    try {
+      driver.reset();
+      if (closed) {
+        driver.quit();
+        closeTransportWhenUnused();
+      } else {
+        idle.add(driver);
+      }
+    } finally {
+      permits.release();
+    }
+  }
+
+  /**
+   * Quits the idle drivers, borrowed drivers are quit when they are released.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    for (var driver = idle.poll(); driver != null; driver = idle.poll()) driver.quit();
+    closeTransportWhenUnused();
+  }
+
+  private void closeTransportWhenUnused() {
+    if (ownTransport != null && borrowed.isEmpty() && transportClosed.compareAndSet(false, true)) ownTransport.close();
+  }
+
+  private JsoupWebDriver checkOut() {
+    if (closed) {
+      permits.release();
+      throw new IllegalStateException("Pool is closed");
+    }
+
+    var driver = idle.poll();
+    if (driver == null) driver = builder.build();
+    borrowed.add(driver);
+    return driver;
+  }
+}
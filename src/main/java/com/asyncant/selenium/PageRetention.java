@@ -0,0 +1,20 @@
+package com.asyncant.selenium;
+
+/**
+ * What happens to a page and its elements after the driver navigates away from it. Elements found on a page that's
+ * no longer retained throw a {@link org.openqa.selenium.StaleElementReferenceException}, like with a browser.
+ */
+public enum PageRetention {
+  /**
+   * Old pages stay usable for as long as any of their elements are referenced.
+   */
+  STRONG,
+  /**
+   * Old pages stay usable until the garbage collector needs the memory.
+   */
+  SOFT,
+  /**
+   * Old pages are released right away, their elements become stale on navigation.
+   */
+  WEAK
+}
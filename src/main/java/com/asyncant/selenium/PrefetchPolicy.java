@@ -0,0 +1,29 @@
+package com.asyncant.selenium;
+
+import org.jspecify.annotations.NullMarked;
+
+import java.time.Duration;
+
+/**
+ * Configures speculative prefetching of the links on the current page, see
+ * {@link JsoupWebDriver.Builder#prefetch(PrefetchPolicy)}.
+ *
+ * @param linkSelector   a CSS selector for the links to prefetch, only their same-origin {@code href}s are fetched
+ * @param maxConcurrency the maximum number of prefetch requests in flight at once
+ * @param maxBytes       the maximum number of response bytes prefetched per page, responses beyond it are dropped
+ * @param timeToLive     how long prefetched pages may be used after navigating to the page that links to them
+ */
+@NullMarked
+public record PrefetchPolicy(String linkSelector, int maxConcurrency, long maxBytes, Duration timeToLive) {
+  public PrefetchPolicy {
+    if (maxConcurrency < 1) throw new IllegalArgumentException("maxConcurrency must be positive: " + maxConcurrency);
+    if (maxBytes < 1) throw new IllegalArgumentException("maxBytes must be positive: " + maxBytes);
+  }
+
+  /**
+   * Prefetches all links, four at a time and at most 8 MB per page, for 30 seconds.
+   */
+  public static PrefetchPolicy defaults() {
+    return new PrefetchPolicy("a[href]", 4, 8 * 1024 * 1024, Duration.ofSeconds(30));
+  }
+}
@@ -0,0 +1,139 @@
+package com.asyncant.selenium;
+
+import com.asyncant.selenium.transport.Transport;
+import com.asyncant.selenium.transport.TransportRequest;
+import org.jsoup.nodes.Document;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.CookieManager;
+import java.net.URI;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fetches the link targets of the current page in the background and parks the parsed pages until the next
+ * navigation, so following one of the links needs no request. Only GET requests are sent, and only responses that
+ * can be used as they are: a {@code 200} without cookies, since storing cookies of pages the test may never visit
+ * would change the session.
+ * <p>
+ * Each navigation starts a new round, dropping the pages of the previous one and ignoring its requests still in
+ * flight. A lazily parsed page starts its round once it's parsed.
+ */
+@NullMarked
+final class Prefetcher {
+  private final PrefetchPolicy policy;
+  private final Transport transport;
+  private final CookieManager cookieManager;
+  private final Semaphore permits;
+  private final Map<URI, CompletableFuture<@Nullable Document>> pages = new ConcurrentHashMap<>();
+  private final AtomicInteger round = new AtomicInteger();
+  private volatile long expiresAt;
+
+  Prefetcher(PrefetchPolicy policy, Transport transport, CookieManager cookieManager) {
+    this.policy = policy;
+    this.transport = transport;
+    this.cookieManager = cookieManager;
+    this.permits = new Semaphore(policy.maxConcurrency());
+  }
+
+  String linkSelector() {
+    return policy.linkSelector();
+  }
+
+  /**
+   * Starts a new round, prefetching the given targets.
+   */
+  void prefetch(Collection<URI> targets) {
+    int current = round.incrementAndGet();
+    pages.clear();
+    // Each round has its own budget, so requests of an earlier round still in flight can't use it up.
+    var bytes = new AtomicLong();
+    expiresAt = System.currentTimeMillis() + policy.timeToLive().toMillis();
+
+    for (URI target : targets) {
+      pages.computeIfAbsent(target, uri -> {
+        var page = new CompletableFuture<@Nullable Document>();
+        Thread.startVirtualThread(() -> page.complete(fetch(uri, current, bytes)));
+        return page;
+      });
+    }
+  }
+
+  /**
+   * Drops the prefetched pages and ignores the requests still in flight, without starting a new round.
+   */
+  void clear() {
+    round.incrementAndGet();
+    pages.clear();
+  }
+
+  /**
+   * Waits until the pages of the current round are fetched and parsed, or have failed.
+   */
+  void awaitRound() {
+    CompletableFuture.allOf(pages.values().toArray(new CompletableFuture<?>[0])).join();
+  }
+
+  /**
+   * Returns the prefetched page for the target, or null if it isn't available at all. A page still in flight is waited
+   * for, rather than requested a second time.
+   */
+  @Nullable Document take(URI target) {
+    var page = pages.remove(target);
+    if (page == null || System.currentTimeMillis() > expiresAt) return null;
+    return page.join();
+  }
+
+  private @Nullable Document fetch(URI uri, int current, AtomicLong bytes) {
+    try {
+      permits.acquire();
+    } catch (InterruptedException e) {
+      return null;
+    }
+    try {
+      if (round.get() != current) return null;
+
+      var request = TransportRequest.get(uri);
+      List<String> cookies = cookieManager.get(uri, Map.of()).getOrDefault("Cookie", List.of());
+      if (!cookies.isEmpty()) request = request.withHeader("Cookie", String.join("; ", cookies));
+
+      var response = transport.execute(request);
+      try (InputStream body = response.body()) {
+        if (response.statusCode() != 200 || response.header("Set-Cookie") != null) return null;
+
+        long budget = policy.maxBytes() - bytes.get();
+        byte[] content = body.readNBytes((int) Math.min(Integer.MAX_VALUE - 8, Math.max(0, budget) + 1));
+        if (round.get() != current || !reserve(bytes, content.length)) return null;
+
+        return JsoupWebDriver.parse(new ByteArrayInputStream(content), response.header("Content-Type"),
+          response.uri().toString());
+      }
+    } catch (IOException | RuntimeException e) {
+      // A failed prefetch only means the page is fetched again when it's needed.
+      return null;
+    } finally {
+      permits.release();
+    }
+  }
+
+  /**
+   * Counts the bytes against the budget of the round, unless they don't fit in what's left of it.
+   */
+  private boolean reserve(AtomicLong bytes, int length) {
+    while (true) {
+      long used = bytes.get();
+      if (used + length > policy.maxBytes()) return false;
+      if (bytes.compareAndSet(used, used + length)) return true;
+    }
+  }
+}
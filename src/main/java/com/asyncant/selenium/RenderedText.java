@@ -0,0 +1,149 @@
+package com.asyncant.selenium;
+
+import org.jsoup.internal.StringUtil;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+import org.jsoup.select.NodeFilter;
+import org.jsoup.select.NodeTraversor;
+import org.jspecify.annotations.NullMarked;
+
+import java.util.Set;
+
+/**
+ * Approximates the text of an element as a browser renders it, in a single walk of its subtree and without a CSS
+ * engine. Elements that aren't rendered, like scripts, styles and templates, and elements hidden by the
+ * {@code hidden} or {@code aria-hidden} attribute or by {@code display: none} or {@code visibility: hidden} in their
+ * {@code style} attribute are left out. Whitespace is collapsed except in preformatted elements, block elements and
+ * {@code <br>} start a new line and table cells are separated by a space.
+ * <p>
+ * Whether an element is hidden is decided like for {@link Visibility}, but by the element alone, so a descendant of an
+ * invisible element can't be made visible again. Style sheets aren't considered, so an element is a block if it's one
+ * by default or its {@code style} attribute says so.
+ */
+@NullMarked
+final class RenderedText implements NodeFilter {
+  private static final char NO_BREAK_SPACE = '\u00A0';
+  private static final char LEFT_TO_RIGHT_MARK = '\u200E';
+  static final Set<String> BLOCKS = Set.of("html", "body", "address", "article", "aside", "blockquote",
+    "caption", "center", "dd", "details", "dialog", "dir", "div", "dl", "dt", "fieldset", "figcaption", "figure",
+    "footer", "form", "h1", "h2", "h3", "h4", "h5", "h6", "header", "hgroup", "hr", "legend", "li", "listing", "main",
+    "menu", "nav", "ol", "option", "optgroup", "p", "plaintext", "pre", "section", "summary", "table", "tr", "ul",
+    "xmp");
+  private static final Set<String> PREFORMATTED = Set.of("pre", "textarea", "listing", "plaintext", "xmp");
+
+  private final StringBuilder text;
+  private final FormState formState;
+  private final boolean changes;
+  /**
+   * The number of preformatted elements the walk is in.
+   */
+  private int preformatted;
+  /**
+   * Whether collapsed whitespace was seen since the last character, which becomes a space unless a line ends first.
+   */
+  private boolean pendingSpace;
+
+  private RenderedText(StringBuilder text, FormState formState) {
+    this.text = text;
+    this.formState = formState;
+    this.changes = formState.hasChangedText();
+  }
+
+  /**
+   * Returns the rendered text of the element with the driver's changes, trimmed and with non-breaking spaces replaced
+   * by spaces.
+   */
+  static String text(Element element, FormState formState) {
+    var renderedText = new RenderedText(StringUtil.borrowBuilder(), formState);
+    NodeTraversor.filter(renderedText, element);
+    return renderedText.release();
+  }
+
+  @Override
+  public FilterResult head(Node node, int depth) {
+    if (node instanceof TextNode textNode) {
+      append(textNode.getWholeText());
+      return FilterResult.CONTINUE;
+    }
+    if (!(node instanceof Element element)) return FilterResult.CONTINUE;
+
+    if (Visibility.isNotRendered(element) || Visibility.isInvisible(element)
+      || element.attr("aria-hidden").equals("true")) return FilterResult.SKIP_ENTIRELY;
+
+    String changed = changes ? formState.changedText(element) : null;
+    if (changed != null) {
+      boolean block = isBlock(element);
+      if (block) endLine();
+      append(changed);
+      if (block) endLine();
+      return FilterResult.SKIP_ENTIRELY;
+    }
+
+    if (element.nameIs("br")) {
+      pendingSpace = false;
+      text.append('\n');
+    } else if (isBlock(element)) {
+      endLine();
+    } else if (element.nameIs("td") || element.nameIs("th")) {
+      if (!atLineStart()) pendingSpace = true;
+    }
+    if (PREFORMATTED.contains(element.normalName())) preformatted++;
+    return FilterResult.CONTINUE;
+  }
+
+  @Override
+  public FilterResult tail(Node node, int depth) {
+    if (node instanceof Element element) {
+      if (isBlock(element)) endLine();
+      if (PREFORMATTED.contains(element.normalName())) preformatted--;
+    }
+    return FilterResult.CONTINUE;
+  }
+
+  private static boolean isBlock(Element element) {
+    String display = InlineStyle.get(element, "display");
+    if (display == null) return BLOCKS.contains(element.normalName());
+    return !display.startsWith("inline") && !display.equals("table-cell") && !display.equals("contents");
+  }
+
+  private void append(String value) {
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == LEFT_TO_RIGHT_MARK) continue;
+
+      if (preformatted == 0 && isCollapsible(c)) {
+        if (!atLineStart()) pendingSpace = true;
+        continue;
+      }
+      if (pendingSpace) {
+        text.append(' ');
+        pendingSpace = false;
+      }
+      text.append(c == NO_BREAK_SPACE ? ' ' : c);
+    }
+  }
+
+  private void endLine() {
+    pendingSpace = false;
+    if (!atLineStart()) text.append('\n');
+  }
+
+  private boolean atLineStart() {
+    return text.isEmpty() || text.charAt(text.length() - 1) == '\n';
+  }
+
+  private static boolean isCollapsible(char c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f';
+  }
+
+  private String release() {
+    int end = text.length();
+    while (end > 0 && text.charAt(end - 1) <= ' ') end--;
+    int start = 0;
+    while (start < end && text.charAt(start) <= ' ') start++;
+    text.setLength(end);
+    text.delete(0, start);
+    return StringUtil.releaseBuilder(text);
+  }
+}
@@ -0,0 +1,101 @@
+package com.asyncant.selenium;
+
+import org.jsoup.internal.StringUtil;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Extracts the text of an element for {@code getText()} in a single walk of its subtree. The text is written to a
+ * pooled builder with non-breaking spaces replaced by spaces, left-to-right marks removed and surrounding whitespace
+ * trimmed on the way, rather than building the whole text and then copying it for each of those steps.
+ * <p>
+ * Text changed by the driver, e.g. of a content editable element, replaces the text of that element's subtree.
+ */
+@NullMarked
+final class TextExtractor {
+  private static final char NO_BREAK_SPACE = '\u00A0';
+  private static final char LEFT_TO_RIGHT_MARK = '\u200E';
+
+  private final StringBuilder text;
+  private final boolean preformatted;
+  /**
+   * The bounds of the trimmed text in the builder, like {@link String#trim()} on the text before replacing characters.
+   */
+  private int start = -1;
+  private int end;
+
+  private TextExtractor(StringBuilder text, boolean preformatted) {
+    this.text = text;
+    this.preformatted = preformatted;
+  }
+
+  /**
+   * Returns the text of the element like {@link Element#wholeText()} with the driver's changes. Unless preformatted,
+   * the text is trimmed, non-breaking spaces are replaced by spaces and left-to-right marks are removed.
+   */
+  static String text(Element element, FormState formState, boolean preformatted) {
+    var extractor = new TextExtractor(StringUtil.borrowBuilder(), preformatted);
+    extractor.append(element, formState);
+    return extractor.release();
+  }
+
+  private void append(Element root, FormState formState) {
+    boolean changes = formState.hasChangedText();
+    @Nullable Node node = root;
+    while (node != null) {
+      @Nullable Node firstChild = null;
+      if (node instanceof TextNode textNode) {
+        append(textNode.getWholeText());
+      } else if (node instanceof Element element) {
+        String changed = changes ? formState.changedText(element) : null;
+        if (changed != null) append(changed);
+        else if (element.nameIs("br")) append("\n");
+        else firstChild = element.firstChild();
+      }
+      node = firstChild != null ? firstChild : next(node, root);
+    }
+  }
+
+  /**
+   * Returns the node after the subtree of the given node in document order, without leaving the root.
+   */
+  private static @Nullable Node next(Node node, Node root) {
+    while (node != root) {
+      Node sibling = node.nextSibling();
+      if (sibling != null) return sibling;
+      node = node.parent();
+    }
+    return null;
+  }
+
+  private void append(String value) {
+    if (preformatted) {
+      text.append(value);
+      return;
+    }
+
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      boolean trimmed = c <= ' ';
+      if (!trimmed && start == -1) start = text.length();
+      if (c == NO_BREAK_SPACE) text.append(' ');
+      else if (c != LEFT_TO_RIGHT_MARK) text.append(c);
+      if (!trimmed) end = text.length();
+    }
+  }
+
+  private String release() {
+    if (!preformatted) {
+      if (start == -1) {
+        text.setLength(0);
+      } else {
+        text.setLength(end);
+        text.delete(0, start);
+      }
+    }
+    return StringUtil.releaseBuilder(text);
+  }
+}
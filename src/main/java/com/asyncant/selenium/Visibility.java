@@ -0,0 +1,113 @@
+package com.asyncant.selenium;
+
+import org.jsoup.nodes.Element;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Whether the elements of a page are displayed, approximated without a CSS engine and computed for all elements in one
+ * pass when first needed. An element isn't displayed if it or an ancestor isn't rendered, like a {@code <template>} or
+ * {@code <noscript>}, has the {@code hidden} attribute, is a hidden input or has {@code display: none} in its
+ * {@code style} attribute. It also isn't displayed if {@code visibility: hidden} is inherited from the closest element
+ * declaring a visibility in its {@code style} attribute. When computed styles are enabled, the {@code display} and
+ * {@code visibility} of the {@link CssCascade} are used instead, so style sheets are taken into account too.
+ * <p>
+ * The elements are kept in an identity table with open addressing, the same way as {@link ElementStore}, and the
+ * results as two bits per slot, so a lookup allocates nothing.
+ */
+@NullMarked
+final class Visibility {
+  private static final Set<String> NOT_RENDERED = Set.of("head", "title", "script", "style", "template", "noscript",
+    "meta", "link", "base", "datalist", "param", "source", "track");
+
+  private final @Nullable Element[] elements;
+  /**
+   * The slots of elements that aren't rendered, by themselves or because of an ancestor.
+   */
+  private final BitSet notRendered = new BitSet();
+  /**
+   * The slots of elements with an inherited or declared {@code visibility: hidden}.
+   */
+  private final BitSet invisible = new BitSet();
+
+  Visibility(Element root, @Nullable CssCascade cascade) {
+    List<Element> all = root.getAllElements();
+    elements = new Element[Integer.highestOneBit(Math.max(all.size(), 1)) * 4];
+    // Parents come before their children, so their bits are known by the time the children are added.
+    try (var ignored = cascade == null ? null : cascade.batch()) {
+      for (Element element : all) {
+        int slot = insert(element);
+        var parent = element.parent();
+        int parentSlot = parent == null ? -1 : slot(parent);
+        boolean hidden = cascade == null ? isNotRendered(element) : cascade.value(element, "display").equals("none");
+        if (hidden || parentSlot != -1 && notRendered.get(parentSlot)) notRendered.set(slot);
+
+        // The cascade already inherits the visibility.
+        var visibility = cascade == null
+          ? InlineStyle.get(element, "visibility")
+          : cascade.value(element, "visibility");
+        if (visibility == null) {
+          if (parentSlot != -1 && invisible.get(parentSlot)) invisible.set(slot);
+        } else if (isInvisible(visibility)) {
+          invisible.set(slot);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns whether the element is displayed, or false if it's not part of the page.
+   */
+  boolean isDisplayed(Element element) {
+    int slot = slot(element);
+    return slot != -1 && !notRendered.get(slot) && !invisible.get(slot);
+  }
+
+  /**
+   * Returns whether the element isn't rendered by itself, regardless of its ancestors.
+   */
+  static boolean isNotRendered(Element element) {
+    return isNotRenderedByDefault(element) || "none".equals(InlineStyle.get(element, "display"));
+  }
+
+  /**
+   * Returns whether the browser's default style doesn't render the element, i.e. gives it {@code display: none}.
+   */
+  static boolean isNotRenderedByDefault(Element element) {
+    if (NOT_RENDERED.contains(element.normalName()) || element.hasAttr("hidden")) return true;
+    return element.nameIs("input") && element.attr("type").equalsIgnoreCase("hidden");
+  }
+
+  /**
+   * Returns whether the element declares itself invisible in its {@code style} attribute.
+   */
+  static boolean isInvisible(Element element) {
+    var visibility = InlineStyle.get(element, "visibility");
+    return visibility != null && isInvisible(visibility);
+  }
+
+  private static boolean isInvisible(String visibility) {
+    return visibility.equals("hidden") || visibility.equals("collapse");
+  }
+
+  private int insert(Element element) {
+    int mask = elements.length - 1;
+    int i = ElementStore.slot(element, mask);
+    while (elements[i] != null) i = (i + 1) & mask;
+    elements[i] = element;
+    return i;
+  }
+
+  private int slot(Element element) {
+    int mask = elements.length - 1;
+    for (int i = ElementStore.slot(element, mask); ; i = (i + 1) & mask) {
+      var key = elements[i];
+      if (key == element) return i;
+      if (key == null) return -1;
+    }
+  }
+}
@@ -0,0 +1,53 @@
+package com.asyncant.selenium;
+
+import org.jsoup.select.Selector;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compiles XPath expressions for the W3C DOM and keeps the most recently used ones, so they aren't parsed again on
+ * every search. Compiled expressions aren't thread-safe, so each driver has its own compiler.
+ */
+@NullMarked
+final class XPathCompiler {
+  private static final int MAX_ENTRIES = 256;
+
+  private @Nullable XPath xpath;
+  private final Map<String, XPathExpression> expressions = new LinkedHashMap<>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, XPathExpression> eldest) {
+      return size() > MAX_ENTRIES;
+    }
+  };
+
+  XPathExpression compile(String expression) {
+    var compiled = expressions.get(expression);
+    if (compiled != null) return compiled;
+
+    if (expression.isEmpty()) throw new Selector.SelectorParseException("XPath query must not be empty");
+    try {
+      compiled = xpath().compile(expression);
+    } catch (XPathExpressionException e) {
+      throw new Selector.SelectorParseException(e, "Could not compile XPath query [%s]: %s", expression,
+        e.getMessage());
+    }
+    expressions.put(expression, compiled);
+    return compiled;
+  }
+
+  private XPath xpath() {
+    var xpath = this.xpath;
+    if (xpath == null) {
+      xpath = XPathFactory.newInstance().newXPath();
+      this.xpath = xpath;
+    }
+    return xpath;
+  }
+}
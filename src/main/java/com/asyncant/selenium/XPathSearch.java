@@ -0,0 +1,115 @@
+package com.asyncant.selenium;
+
+import org.jsoup.helper.W3CDom;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Selector;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.namespace.QName;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpressionException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Evaluates XPath expressions against a document, like {@link Element#selectXpath(String)}, but converts the document
+ * to a W3C DOM only once rather than on every search. The driver never modifies a parsed document, so the conversion
+ * stays valid for the lifetime of the page. Only used for expressions that
+ * {@link com.asyncant.jsoup.select.XPathEvaluator} can't evaluate on the jsoup tree.
+ * <p>
+ * Searches from an element are evaluated in the whole document with the element as context node, like in a browser,
+ * so e.g. {@code ancestor::} axes reach outside the element.
+ */
+@NullMarked
+final class XPathSearch {
+  private final org.jsoup.nodes.Document document;
+  private final XPathCompiler compiler;
+  private @Nullable Map<org.jsoup.nodes.Node, Node> w3cNodes;
+
+  XPathSearch(org.jsoup.nodes.Document document, XPathCompiler compiler) {
+    this.document = document;
+    this.compiler = compiler;
+  }
+
+  /**
+   * Returns all elements matching the expression, in document order.
+   */
+  List<Element> selectAll(String expression, Element context) {
+    var nodes = (NodeList) evaluate(expression, context, XPathConstants.NODESET);
+    List<Element> elements = new ArrayList<>(nodes.getLength());
+    for (int i = 0; i < nodes.getLength(); i++) {
+      if (source(nodes.item(i)) instanceof Element element) elements.add(element);
+    }
+    return elements;
+  }
+
+  /**
+   * Returns the first element matching the expression. The expression is evaluated for a single node, which lets
+   * the XPath engine stop at the first match instead of collecting all of them.
+   */
+  @Nullable Element selectFirst(String expression, Element context) {
+    var node = (Node) evaluate(expression, context, XPathConstants.NODE);
+    if (node == null) return null;
+    if (source(node) instanceof Element element) return element;
+
+    // The first match isn't an element, e.g. a text node, so the first element has to be found among all matches.
+    var elements = selectAll(expression, context);
+    return elements.isEmpty() ? null : elements.getFirst();
+  }
+
+  private Object evaluate(String expression, Element context, QName returnType) {
+    var compiled = compiler.compile(expression);
+    try {
+      return compiled.evaluate(w3cNode(context), returnType);
+    } catch (XPathExpressionException e) {
+      throw new Selector.SelectorParseException(e, "Could not evaluate XPath query [%s]: %s", expression,
+        e.getMessage());
+    }
+  }
+
+  private Node w3cNode(Element context) {
+    // Like jsoup, searches from the document start at its root element.
+    if (context instanceof org.jsoup.nodes.Document && context.firstElementChild() != null) {
+      context = context.firstElementChild();
+    }
+
+    var w3cNodes = this.w3cNodes;
+    if (w3cNodes == null) {
+      w3cNodes = new IdentityHashMap<>();
+      var w3cDocument = new W3CDom().namespaceAware(false).fromJsoup(document);
+      w3cNodes.put(document, w3cDocument);
+      collect(w3cDocument, w3cNodes);
+      this.w3cNodes = w3cNodes;
+    }
+    var node = w3cNodes.get(context);
+    if (node == null) throw new StaleElementReferenceException("Element is no longer part of the page: " + context);
+    return node;
+  }
+
+  private static void collect(Node root, Map<org.jsoup.nodes.Node, Node> w3cNodes) {
+    // Iterative, deeply nested documents would overflow the stack otherwise.
+    Node node = root.getFirstChild();
+    while (node != null) {
+      if (node.getNodeType() == Node.ELEMENT_NODE && source(node) instanceof org.jsoup.nodes.Node source) {
+        w3cNodes.put(source, node);
+      }
+
+      if (node.getFirstChild() != null) {
+        node = node.getFirstChild();
+        continue;
+      }
+      while (node != root && node.getNextSibling() == null) node = node.getParentNode();
+      node = node == root ? null : node.getNextSibling();
+    }
+  }
+
+  private static @Nullable Object source(Node node) {
+    return node.getUserData(W3CDom.SourceProperty);
+  }
+}
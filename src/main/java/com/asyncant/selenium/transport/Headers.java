@@ -0,0 +1,22 @@
+package com.asyncant.selenium.transport;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.util.List;
+import java.util.Map;
+
+@NullMarked
+final class Headers {
+  private Headers() {
+  }
+
+  static @Nullable String first(Map<String, List<String>> headers, String name) {
+    for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+      if (header.getKey() == null || !header.getKey().equalsIgnoreCase(name)) continue;
+      if (header.getValue().isEmpty()) continue;
+      return header.getValue().getFirst();
+    }
+    return null;
+  }
+}
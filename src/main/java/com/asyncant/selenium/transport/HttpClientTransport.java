@@ -0,0 +1,118 @@
+package com.asyncant.selenium.transport;
+
+import org.jsoup.helper.HttpConnection;
+import org.jspecify.annotations.NullMarked;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * The default transport, built on {@link HttpClient}. A single client is used for all requests so connections are
+ * pooled and kept alive between navigations, and HTTP/2 is used when the server supports it.
+ * <p>
+ * By default the response body is streamed: it is handed to the parser as the bytes arrive, so parsing overlaps with
+ * the transfer and the raw body is never buffered in full. Buffered mode reads the complete body before returning.
+ * <p>
+ * The client must not follow redirects or manage cookies itself, the driver does both.
+ * <p>
+ * Like jsoup's own connection, requests ask for gzip compression, which is decoded transparently, and identify as a
+ * desktop browser unless the request sets its own {@code Accept-Encoding} or {@code User-Agent}.
+ */
+@NullMarked
+public class HttpClientTransport implements Transport, AutoCloseable {
+  private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+  private final HttpClient client;
+  private final boolean streaming;
+
+  public HttpClientTransport() {
+    this(true);
+  }
+
+  public HttpClientTransport(boolean streaming) {
+    this(HttpClient.newBuilder()
+      .version(HttpClient.Version.HTTP_2)
+      .followRedirects(HttpClient.Redirect.NEVER)
+      .connectTimeout(TIMEOUT)
+      .build(), streaming);
+  }
+
+  public HttpClientTransport(HttpClient client) {
+    this(client, true);
+  }
+
+  public HttpClientTransport(HttpClient client, boolean streaming) {
+    this.client = client;
+    this.streaming = streaming;
+  }
+
+  @Override
+  public TransportResponse execute(TransportRequest request) throws IOException {
+    try {
+      if (streaming) {
+        var response = client.send(toHttpRequest(request), HttpResponse.BodyHandlers.ofInputStream());
+        return toResponse(response, response.body());
+      }
+
+      var response = client.send(toHttpRequest(request), HttpResponse.BodyHandlers.ofByteArray());
+      return toResponse(response, new ByteArrayInputStream(response.body()));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while fetching " + request.uri());
+    }
+  }
+
+  /**
+   * Closes the client, waiting for the requests in flight to complete.
+   */
+  @Override
+  public void close() {
+    client.close();
+  }
+
+  private static HttpRequest toHttpRequest(TransportRequest request) {
+    var body = request.body();
+    var builder = HttpRequest.newBuilder(request.uri())
+      .timeout(TIMEOUT)
+      .method(request.method(), body == null
+        ? HttpRequest.BodyPublishers.noBody()
+        : HttpRequest.BodyPublishers.ofByteArray(body));
+    for (Map.Entry<String, List<String>> header : request.headers().entrySet()) {
+      for (String value : header.getValue()) {
+        builder.header(header.getKey(), value);
+      }
+    }
+    if (request.header("Accept-Encoding") == null) builder.header("Accept-Encoding", "gzip");
+    if (request.header("User-Agent") == null) builder.header("User-Agent", HttpConnection.DEFAULT_UA);
+    return builder.build();
+  }
+
+  /**
+   * Decodes a gzip compressed body. The {@code Content-Encoding} header is left out, since the body no longer has it.
+   */
+  private static TransportResponse toResponse(HttpResponse<?> response, InputStream body) throws IOException {
+    var headers = response.headers().map();
+    String encoding = response.headers().firstValue("Content-Encoding").orElse("");
+    if (encoding.equalsIgnoreCase("gzip") && response.statusCode() != 204 && response.statusCode() != 304) {
+      try {
+        body = new GZIPInputStream(body);
+      } catch (IOException e) {
+        body.close();
+        throw e;
+      }
+      headers = new HashMap<>(headers);
+      headers.keySet().removeIf(name -> name.equalsIgnoreCase("Content-Encoding"));
+    }
+    return new TransportResponse(response.statusCode(), response.uri(), headers, body);
+  }
+}
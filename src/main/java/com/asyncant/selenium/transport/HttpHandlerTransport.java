@@ -0,0 +1,222 @@
+package com.asyncant.selenium.transport;
+
+import com.sun.net.httpserver.Authenticator;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpPrincipal;
+import com.sun.net.httpserver.HttpServer;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Adapts a {@link HttpHandler} to a {@link Transport} by handing it an in-memory {@link HttpExchange}.
+ */
+@NullMarked
+class HttpHandlerTransport implements Transport {
+  private final InProcessHttpContext context;
+
+  HttpHandlerTransport(String path, HttpHandler handler) {
+    this.context = new InProcessHttpContext(path, handler);
+  }
+
+  @Override
+  public TransportResponse execute(TransportRequest request) throws IOException {
+    var exchange = new InProcessHttpExchange(request, context);
+    try {
+      context.getHandler().handle(exchange);
+    } catch (RuntimeException e) {
+      // A real server would drop the connection, which the client sees as an I/O error.
+      throw new IOException("Handler failed for " + request.uri(), e);
+    }
+
+    if (exchange.getResponseCode() == -1) throw new IOException("Handler did not send a response for " + request.uri());
+
+    return new TransportResponse(exchange.getResponseCode(), request.uri(), Map.copyOf(exchange.getResponseHeaders()),
+      new ByteArrayInputStream(exchange.responseBody.toByteArray()));
+  }
+
+  @NullMarked
+  private static class InProcessHttpExchange extends HttpExchange {
+    private final TransportRequest request;
+    private final URI requestUri;
+    private final HttpContext context;
+    private final Headers requestHeaders = new Headers();
+    private final Headers responseHeaders = new Headers();
+    private final Map<String, Object> attributes = new HashMap<>();
+    private final ByteArrayOutputStream responseBody = new ByteArrayOutputStream();
+    private InputStream in;
+    private OutputStream out = responseBody;
+    private int responseCode = -1;
+
+    private InProcessHttpExchange(TransportRequest request, HttpContext context) {
+      this.request = request;
+      // Like on a server, the request line only holds the path and query, the host is sent in its own header.
+      var uri = request.uri();
+      String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+      this.requestUri = URI.create(uri.getRawQuery() == null ? path : path + "?" + uri.getRawQuery());
+      this.context = context;
+      this.requestHeaders.putAll(request.headers());
+      if (!requestHeaders.containsKey("Host") && uri.getHost() != null) {
+        requestHeaders.set("Host", uri.getPort() == -1 ? uri.getHost() : uri.getHost() + ":" + uri.getPort());
+      }
+      var body = request.body();
+      this.in = new ByteArrayInputStream(body == null ? new byte[0] : body);
+    }
+
+    @Override
+    public Headers getRequestHeaders() {
+      return requestHeaders;
+    }
+
+    @Override
+    public Headers getResponseHeaders() {
+      return responseHeaders;
+    }
+
+    @Override
+    public URI getRequestURI() {
+      return requestUri;
+    }
+
+    @Override
+    public String getRequestMethod() {
+      return request.method();
+    }
+
+    @Override
+    public HttpContext getHttpContext() {
+      return context;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public InputStream getRequestBody() {
+      return in;
+    }
+
+    @Override
+    public OutputStream getResponseBody() {
+      return out;
+    }
+
+    @Override
+    public void sendResponseHeaders(int rCode, long responseLength) throws IOException {
+      if (responseCode != -1) throw new IOException("Headers already sent");
+      responseCode = rCode;
+    }
+
+    @Override
+    public InetSocketAddress getRemoteAddress() {
+      return new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+    }
+
+    @Override
+    public int getResponseCode() {
+      return responseCode;
+    }
+
+    @Override
+    public InetSocketAddress getLocalAddress() {
+      int port = request.uri().getPort();
+      if (port == -1) port = "https".equalsIgnoreCase(request.uri().getScheme()) ? 443 : 80;
+      return new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+    }
+
+    @Override
+    public String getProtocol() {
+      return "HTTP/1.1";
+    }
+
+    @Override
+    public @Nullable Object getAttribute(String name) {
+      return attributes.get(name);
+    }
+
+    @Override
+    public void setAttribute(String name, @Nullable Object value) {
+      if (value == null) attributes.remove(name);
+      else attributes.put(name, value);
+    }
+
+    @Override
+    public void setStreams(@Nullable InputStream i, @Nullable OutputStream o) {
+      if (i != null) in = i;
+      if (o != null) out = o;
+    }
+
+    @Override
+    public @Nullable HttpPrincipal getPrincipal() {
+      return null;
+    }
+  }
+
+  @NullMarked
+  private static class InProcessHttpContext extends HttpContext {
+    private final String path;
+    private final Map<String, Object> attributes = new HashMap<>();
+    private HttpHandler handler;
+
+    private InProcessHttpContext(String path, HttpHandler handler) {
+      this.path = path;
+      this.handler = handler;
+    }
+
+    @Override
+    public HttpHandler getHandler() {
+      return handler;
+    }
+
+    @Override
+    public void setHandler(HttpHandler handler) {
+      this.handler = handler;
+    }
+
+    @Override
+    public String getPath() {
+      return path;
+    }
+
+    @Override
+    public HttpServer getServer() {
+      throw new UnsupportedOperationException("In-process handlers are not bound to a server.");
+    }
+
+    @Override
+    public Map<String, Object> getAttributes() {
+      return attributes;
+    }
+
+    @Override
+    public List<Filter> getFilters() {
+      return List.of();
+    }
+
+    @Override
+    public @Nullable Authenticator setAuthenticator(@Nullable Authenticator auth) {
+      throw new UnsupportedOperationException("Authenticators are not supported in-process.");
+    }
+
+    @Override
+    public @Nullable Authenticator getAuthenticator() {
+      return null;
+    }
+  }
+}
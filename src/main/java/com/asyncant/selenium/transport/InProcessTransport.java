@@ -0,0 +1,60 @@
+package com.asyncant.selenium.transport;
+
+import com.sun.net.httpserver.HttpHandler;
+import org.jspecify.annotations.NullMarked;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A transport that dispatches requests directly to handlers living in the same JVM, without opening sockets or
+ * serializing HTTP messages.
+ * <p>
+ * Handlers are registered for a context path and matched like {@link com.sun.net.httpserver.HttpServer} does: the
+ * handler with the longest path that is a prefix of the request path is used. Requests that don't match any handler
+ * result in a 404 response. The host and port of the request are ignored.
+ */
+@NullMarked
+public class InProcessTransport implements Transport {
+  private final List<Route> routes = new ArrayList<>();
+
+  /**
+   * Registers a {@link HttpHandler}, e.g. one that is also used with a {@link com.sun.net.httpserver.HttpServer}.
+   * Filters and authenticators are not supported.
+   */
+  public InProcessTransport register(String path, HttpHandler handler) {
+    return registerTransport(path, new HttpHandlerTransport(path, handler));
+  }
+
+  /**
+   * Registers a handler that maps a request directly to a response.
+   */
+  public InProcessTransport registerTransport(String path, Transport handler) {
+    if (!path.startsWith("/")) throw new IllegalArgumentException("Path must start with '/': " + path);
+
+    routes.removeIf(it -> it.path.equals(path));
+    routes.add(new Route(path, handler));
+    routes.sort(Comparator.comparingInt((Route it) -> it.path.length()).reversed());
+    return this;
+  }
+
+  @Override
+  public TransportResponse execute(TransportRequest request) throws IOException {
+    String path = request.uri().getPath();
+    if (path == null || path.isEmpty()) path = "/";
+
+    for (Route route : routes) {
+      if (path.startsWith(route.path)) return route.handler.execute(request);
+    }
+
+    return new TransportResponse(404, request.uri(), Map.of("Content-Type", List.of("text/plain")),
+      new ByteArrayInputStream(new byte[0]));
+  }
+
+  private record Route(String path, Transport handler) {
+  }
+}
@@ -0,0 +1,17 @@
+package com.asyncant.selenium.transport;
+
+import org.jspecify.annotations.NullMarked;
+
+import java.io.IOException;
+
+/**
+ * Executes a single HTTP exchange for the driver. Implementations only move bytes: cookies and redirects are handled by
+ * the driver, so every transport behaves the same from a test's point of view.
+ */
+@NullMarked
+public interface Transport {
+  /**
+   * Executes the request and returns the response. The caller is responsible for closing the response body.
+   */
+  TransportResponse execute(TransportRequest request) throws IOException;
+}
@@ -0,0 +1,45 @@
+package com.asyncant.selenium.transport;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A request as issued by the driver, after cookies have been applied.
+ *
+ * @param method  the HTTP method, e.g. {@code GET} or {@code POST}
+ * @param uri     the absolute http(s) URI, without fragment
+ * @param headers the request headers
+ * @param body    the request body, or null if the request has none
+ */
+@NullMarked
+public record TransportRequest(String method, URI uri, Map<String, List<String>> headers, byte @Nullable [] body) {
+  public TransportRequest {
+    headers = Map.copyOf(headers);
+  }
+
+  public static TransportRequest get(URI uri) {
+    return new TransportRequest("GET", uri, Map.of(), null);
+  }
+
+  /**
+   * Returns a copy of this request with the given header replacing any existing value.
+   */
+  public TransportRequest withHeader(String name, String value) {
+    var newHeaders = new HashMap<>(headers);
+    newHeaders.keySet().removeIf(it -> it.equalsIgnoreCase(name));
+    newHeaders.put(name, List.of(value));
+    return new TransportRequest(method, uri, newHeaders, body);
+  }
+
+  /**
+   * Returns the first value of the given header, matched case-insensitively, or null if it's absent.
+   */
+  public @Nullable String header(String name) {
+    return Headers.first(headers, name);
+  }
+}
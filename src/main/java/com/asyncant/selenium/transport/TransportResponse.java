@@ -0,0 +1,27 @@
+package com.asyncant.selenium.transport;
+
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A response as returned by a {@link Transport}, before cookies and redirects have been processed by the driver.
+ *
+ * @param statusCode the HTTP status code
+ * @param uri        the URI the response was fetched from
+ * @param headers    the response headers
+ * @param body       the response body, which must be closed by the consumer
+ */
+@NullMarked
+public record TransportResponse(int statusCode, URI uri, Map<String, List<String>> headers, InputStream body) {
+  /**
+   * Returns the first value of the given header, matched case-insensitively, or null if it's absent.
+   */
+  public @Nullable String header(String name) {
+    return Headers.first(headers, name);
+  }
+}
@@ -0,0 +1,32 @@
+package com.asyncant.selenium;
+
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CssCascadeTest {
+  private static final String PAGE = """
+    <style>div:has(p) > p { display: none } section p { color: red }</style>
+    <div><p id="hidden">Hidden</p></div><section><p id="red">Red</p></section><p id="plain">Plain</p>""";
+
+  @Test
+  public void computesTheSameValuesInBatches() {
+    var document = Jsoup.parse(PAGE);
+    var batched = new CssCascade(document);
+    var singleDocument = Jsoup.parse(PAGE);
+    var single = new CssCascade(singleDocument);
+
+    try (var ignored = batched.batch()) {
+      for (String id : new String[] {"hidden", "red", "plain"}) {
+        for (String property : new String[] {"display", "color"}) {
+          assertThat(batched.value(document.getElementById(id), property))
+            .isEqualTo(single.value(singleDocument.getElementById(id), property));
+        }
+      }
+    }
+
+    assertThat(batched.value(document.getElementById("hidden"), "display")).isEqualTo("none");
+    assertThat(batched.value(document.getElementById("red"), "color")).isEqualTo("rgba(255, 0, 0, 1)");
+  }
+}
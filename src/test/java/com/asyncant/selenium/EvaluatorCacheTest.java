@@ -0,0 +1,65 @@
+package com.asyncant.selenium;
+
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.QueryParser;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.Pages;
+import org.openqa.selenium.WebDriver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EvaluatorCacheTest {
+  private final Pages pages = JsoupTestServer.pages();
+  private final WebDriver driver = JsoupTestServer.inProcessDriver();
+
+  @Test
+  public void reusesCompiledEvaluators() {
+    var cache = new EvaluatorCache(10);
+
+    Evaluator first = cache.get(By.ByCssSelector.class, "input.big", () -> QueryParser.parse("input.big"));
+    Evaluator second = cache.get(By.ByCssSelector.class, "input.big", () -> QueryParser.parse("p"));
+
+    assertThat(second).isSameAs(first);
+    assertThat(cache.misses()).isEqualTo(1);
+    assertThat(cache.hits()).isEqualTo(1);
+    assertThat(cache.hitRate()).isEqualTo(0.5);
+  }
+
+  @Test
+  public void evictsWhenFull() {
+    var cache = new EvaluatorCache(2);
+
+    for (String tag : new String[] {"a", "b", "c"}) cache.get(By.ByTagName.class, tag, () -> new Evaluator.Tag(tag));
+
+    assertThat(cache.size()).isEqualTo(2);
+  }
+
+  @Test
+  public void detectsStructuralSelectors() {
+    assertThat(EvaluatorCache.isStructural("form#someForm > input")).isTrue();
+    assertThat(EvaluatorCache.isStructural("div p")).isTrue();
+    assertThat(EvaluatorCache.isStructural("h1+p")).isTrue();
+    assertThat(EvaluatorCache.isStructural("div:HAS(p)")).isTrue();
+    assertThat(EvaluatorCache.isStructural("input:not([type=hidden])")).isTrue();
+    assertThat(EvaluatorCache.isStructural("input[name='fish'].big:first-child")).isFalse();
+  }
+
+  @Test
+  public void keysByLocatorStrategy() {
+    driver.get(pages.xhtmlTestPage);
+
+    assertThat(driver.findElements(By.tagName("title"))).hasSize(1);
+    assertThat(driver.findElements(By.className("title"))).isEmpty();
+    assertThat(driver.findElements(By.id("title"))).isEmpty();
+  }
+
+  @Test
+  public void findsWithStructuralSelectorsRepeatedly() {
+    driver.get(pages.xhtmlTestPage);
+    var locator = By.cssSelector("form[name=someForm] > input");
+
+    assertThat(driver.findElement(locator).getAttribute("id")).isEqualTo("username");
+    assertThat(driver.findElements(locator)).hasSize(1);
+  }
+}
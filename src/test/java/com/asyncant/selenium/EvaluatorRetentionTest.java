@@ -0,0 +1,50 @@
+package com.asyncant.selenium;
+
+import com.asyncant.selenium.transport.InProcessTransport;
+import org.jsoup.nodes.Document;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+
+import java.lang.ref.WeakReference;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that evaluators, cached or compiled for one search, don't keep the documents they searched reachable, e.g.
+ * through the memo of structural evaluators.
+ */
+public class EvaluatorRetentionTest {
+  private static final String URL = "http://localhost:8080/page";
+
+  @Test
+  public void doesNotRetainSearchedDocuments() throws InterruptedException {
+    var cache = new DocumentCache(10);
+    var driver = JsoupWebDriver.builder()
+      .transport(new InProcessTransport().registerTransport("/", request -> JsoupTestServer.htmlResponse(request,
+        "<style>div:has(p) > p { color: red }</style><div><p id='paragraph'>Text</p></div>",
+        Map.of("Cache-Control", List.of("max-age=60")))))
+      .documentCache(cache)
+      .pageRetention(PageRetention.WEAK)
+      .computedStyles(true)
+      .build();
+    driver.get(URL);
+    assertThat(driver.findElements(By.cssSelector("div p"))).hasSize(1);
+    assertThat(driver.findElement(By.cssSelector("div:has(p) > p")).getText()).isEqualTo("Text");
+    assertThat(driver.findAll(Map.of("nested", By.cssSelector("div:has(p) p"))).get("nested")).hasSize(1);
+    assertThat(driver.findElement(By.id("paragraph")).getCssValue("color")).isEqualTo("rgba(255, 0, 0, 1)");
+    var document = new WeakReference<Document>(cache.getFresh(URI.create(URL)));
+    assertThat(document.get()).isNotNull();
+
+    cache.clear();
+    driver.get("http://localhost:8080/other");
+
+    for (int i = 0; i < 50 && document.get() != null; i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+    assertThat(document.get()).isNull();
+  }
+}
@@ -60,6 +60,7 @@ public class JsoupDriverTestBase {
       case "firefox" -> getFirefoxDriver();
       case "htmlunit" -> getHtmlUnitDriver();
       case "jsoup", "default" -> new JsoupWebDriver();
+      case "jsoup-in-process" -> new JsoupWebDriver(JsoupTestServer.inProcessTransport());
       default -> throw new IllegalArgumentException("Unknown web driver: " + driver);
     };
   }
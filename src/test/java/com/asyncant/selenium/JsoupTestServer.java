@@ -1,13 +1,21 @@
 package com.asyncant.selenium;
 
+import com.asyncant.selenium.transport.InProcessTransport;
+import com.asyncant.selenium.transport.TransportRequest;
+import com.asyncant.selenium.transport.TransportResponse;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
+import org.openqa.selenium.Pages;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.InetSocketAddress;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
 
 import static java.net.HttpURLConnection.HTTP_MOVED_TEMP;
 import static java.net.HttpURLConnection.HTTP_OK;
@@ -30,16 +38,68 @@ public class JsoupTestServer {
       throw new RuntimeException(e);
     }
 
-    server.createContext("/", new ResourceHtmlHttpHandler("/"));
-    server.createContext("/click_tests", new ResourceHtmlHttpHandler("/click_tests/"));
-    server.createContext("/common/cookie", new CookieHttpHandler());
-    server.createContext("/common", new EmptyResourceHttpHandler());
-    server.createContext("/encoding", new EncodingHttpHandler());
-    server.createContext("/redirect", new RedirectHttpHandler());
+    createContexts(server::createContext);
     server.setExecutor(null);
     server.start();
   }
 
+  /**
+   * Returns a transport that serves the same pages as the server, without going through a socket.
+   */
+  public static InProcessTransport inProcessTransport() {
+    var transport = new InProcessTransport();
+    createContexts(transport::register);
+    return transport;
+  }
+
+  /**
+   * Returns a driver that loads the pages of the server through an {@link #inProcessTransport()}.
+   */
+  public static JsoupWebDriver inProcessDriver() {
+    return new JsoupWebDriver(inProcessTransport());
+  }
+
+  /**
+   * Returns the URLs of the pages of the server.
+   */
+  public static Pages pages() {
+    return new Pages("http://localhost:8080");
+  }
+
+  /**
+   * Returns a transport that serves the given page at every path.
+   */
+  public static InProcessTransport htmlTransport(String html) {
+    return new InProcessTransport().registerTransport("/", request -> htmlResponse(request, html));
+  }
+
+  /**
+   * Returns a {@code 200 OK} response with the given page, e.g. from a handler registered on an
+   * {@link InProcessTransport}.
+   */
+  public static TransportResponse htmlResponse(TransportRequest request, String html) {
+    return htmlResponse(request, html, Map.of());
+  }
+
+  /**
+   * Returns a {@code 200 OK} response with the given page and additional headers.
+   */
+  public static TransportResponse htmlResponse(TransportRequest request, String html,
+                                               Map<String, List<String>> headers) {
+    var allHeaders = new HashMap<>(headers);
+    allHeaders.put("Content-Type", List.of("text/html;charset=UTF-8"));
+    return new TransportResponse(200, request.uri(), allHeaders, new ByteArrayInputStream(html.getBytes(UTF_8)));
+  }
+
+  private static void createContexts(BiConsumer<String, HttpHandler> createContext) {
+    createContext.accept("/", new ResourceHtmlHttpHandler("/"));
+    createContext.accept("/click_tests", new ResourceHtmlHttpHandler("/click_tests/"));
+    createContext.accept("/common/cookie", new CookieHttpHandler());
+    createContext.accept("/common", new EmptyResourceHttpHandler());
+    createContext.accept("/encoding", new EncodingHttpHandler());
+    createContext.accept("/redirect", new RedirectHttpHandler());
+  }
+
   void stop() {
     server.stop(0);
   }
@@ -0,0 +1,114 @@
+package com.asyncant.selenium;
+
+import com.asyncant.selenium.transport.InProcessTransport;
+import com.asyncant.selenium.transport.TransportRequest;
+import com.asyncant.selenium.transport.TransportResponse;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.Cookie;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PrefetchTest {
+  private final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+  private final CountDownLatch slowRequested = new CountDownLatch(1);
+  private final JsoupWebDriver driver = JsoupWebDriver.builder()
+    .transport(new InProcessTransport().registerTransport("/", this::serve))
+    .prefetch(PrefetchPolicy.defaults())
+    .build();
+
+  @Test
+  public void servesPrefetchedLinksWithoutRequest() {
+    driver.get("http://first.asyncant.localhost:8080/");
+    driver.awaitPrefetches();
+
+    driver.findElement(By.linkText("One")).click();
+
+    assertThat(driver.getTitle()).isEqualTo("/one");
+    assertThat(requests.get("/one")).hasValue(1);
+    assertThat(requests).containsKeys("/two", "/cookie");
+    assertThat(requests).doesNotContainKeys("/other", "/form");
+  }
+
+  @Test
+  public void fetchesPagesSettingCookiesAgain() {
+    driver.get("http://first.asyncant.localhost:8080/");
+    driver.awaitPrefetches();
+
+    driver.findElement(By.linkText("Cookie")).click();
+
+    assertThat(driver.getTitle()).isEqualTo("/cookie");
+    assertThat(requests.get("/cookie")).hasValue(2);
+    assertThat(driver.manage().getCookieNamed("fish")).isNotNull();
+  }
+
+  @Test
+  public void fetchesAgainAfterTheCookiesChanged() {
+    driver.get("http://first.asyncant.localhost:8080/");
+    driver.awaitPrefetches();
+
+    driver.manage().addCookie(new Cookie("session", "other"));
+    driver.findElement(By.linkText("One")).click();
+
+    assertThat(driver.getTitle()).isEqualTo("/one");
+    assertThat(requests.get("/one")).hasValue(2);
+  }
+
+  @Test
+  public void waitsForPrefetchesInFlight() throws InterruptedException {
+    driver.get("http://first.asyncant.localhost:8080/");
+    slowRequested.await();
+
+    driver.findElement(By.linkText("Slow")).click();
+
+    assertThat(driver.getTitle()).isEqualTo("/slow");
+    assertThat(requests.get("/slow")).hasValue(1);
+  }
+
+  @Test
+  public void prefetchesLazilyParsedPagesOnceTheyAreParsed() {
+    var lazyDriver = JsoupWebDriver.builder()
+      .transport(new InProcessTransport().registerTransport("/", this::serve))
+      .prefetch(PrefetchPolicy.defaults())
+      .lazyParsing(true)
+      .build();
+    lazyDriver.get("http://first.asyncant.localhost:8080/");
+    lazyDriver.awaitPrefetches();
+
+    assertThat(lazyDriver.getPageSource()).contains("<a href=\"/one\">One</a>");
+    assertThat(requests).containsOnlyKeys("/");
+
+    var link = lazyDriver.findElement(By.linkText("One"));
+    lazyDriver.awaitPrefetches();
+    link.click();
+
+    assertThat(lazyDriver.getTitle()).isEqualTo("/one");
+    assertThat(requests.get("/one")).hasValue(1);
+  }
+
+  private TransportResponse serve(TransportRequest request) {
+    String path = request.uri().getPath();
+    requests.computeIfAbsent(path, it -> new AtomicInteger()).incrementAndGet();
+    if (path.equals("/slow")) {
+      slowRequested.countDown();
+      try {
+        Thread.sleep(50);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    String body = "<title>" + path + "</title>" + (path.equals("/") ? """
+      <a href="/one">One</a> <a href="/two#top">Two</a> <a href="/cookie">Cookie</a> <a href="#top">Top</a>
+      <a href="/slow">Slow</a>
+      <a href="http://other.localhost:8080/other">Other</a> <form method="post" action="/form"></form>""" : "");
+    return JsoupTestServer.htmlResponse(request, body,
+      path.equals("/cookie") ? Map.of("Set-Cookie", List.of("fish=cod")) : Map.of());
+  }
+}
@@ -0,0 +1,77 @@
+package com.asyncant.selenium.misc;
+
+import com.asyncant.selenium.JsoupTestServer;
+import com.asyncant.selenium.JsoupWebDriver;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.Pages;
+import org.openqa.selenium.WebDriverException;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class AsyncNavigationTest {
+  private final Pages pages = JsoupTestServer.pages();
+  private final JsoupWebDriver driver = JsoupTestServer.inProcessDriver();
+
+  @Test
+  public void loadsWithoutChangingTheCurrentPage() throws Exception {
+    driver.get(pages.simpleTestPage);
+
+    var formPage = driver.getAsync(pages.formPage);
+    var xhtmlPage = driver.getAsync(pages.xhtmlTestPage);
+
+    assertThat(xhtmlPage.get().getUrl()).isEqualTo(pages.xhtmlTestPage);
+    assertThat(formPage.get().getUrl()).isEqualTo(pages.formPage);
+    assertThat(driver.getTitle()).isEqualTo("Hello WebDriver");
+
+    formPage.get().commit();
+
+    assertThat(driver.getCurrentUrl()).isEqualTo(pages.formPage);
+    assertThat(driver.findElement(By.id("email")).getTagName()).isEqualTo("input");
+  }
+
+  @Test
+  public void submitsFormsInTheBackground() throws Exception {
+    driver.get(pages.formPage);
+    driver.findElement(By.id("email")).sendKeys("someone@example.com");
+
+    var result = driver.submitAsync(driver.findElement(By.id("submitButton")));
+
+    assertThat(driver.getCurrentUrl()).isEqualTo(pages.formPage);
+    result.get().commit();
+    assertThat(driver.getTitle()).isEqualTo("We Arrive Here");
+  }
+
+  @Test
+  public void failsTheFutureForElementsOutsideForms() {
+    driver.get(pages.formPage);
+
+    var result = driver.submitAsync(driver.findElement(By.tagName("body")));
+
+    assertThatThrownBy(result::get).isInstanceOf(ExecutionException.class)
+      .hasCauseInstanceOf(UnsupportedOperationException.class);
+  }
+
+  @Test
+  public void failsTheFutureForUnsupportedUrls() {
+    var page = driver.getAsync("ftp://localhost/file");
+
+    assertThatThrownBy(page::get).isInstanceOf(ExecutionException.class).hasCauseInstanceOf(WebDriverException.class);
+  }
+
+  @Test
+  public void failsTheFutureForErrors() {
+    var failing = new JsoupWebDriver(request -> {
+      throw new StackOverflowError();
+    });
+
+    var page = failing.getAsync(pages.simpleTestPage);
+
+    assertThatThrownBy(() -> page.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class)
+      .hasCauseInstanceOf(StackOverflowError.class);
+  }
+}
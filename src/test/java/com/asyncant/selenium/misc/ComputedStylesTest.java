@@ -0,0 +1,117 @@
+package com.asyncant.selenium.misc;
+
+import com.asyncant.selenium.JsoupTestServer;
+import com.asyncant.selenium.JsoupWebDriver;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ComputedStylesTest {
+  private static final String PAGE = """
+    <!DOCTYPE html>
+    <html>
+    <head>
+      <title>Computed styles</title>
+      <style>
+        /* Comments are ignored: p { color: blue } */
+        p { color: red; font-weight: bold }
+        .notice { color: #00f }
+        #important { color: green !important }
+        div > span.inline-block { display: inline-block }
+        a:hover { color: yellow }
+        @media print { p { color: black } }
+        @media screen { .wide { display: flex } }
+        .gone { display: none }
+        .faded { visibility: hidden }
+      </style>
+    </head>
+    <body>
+      <p id="paragraph">Red and <span id="inherited">inherited</span></p>
+      <p id="notice" class="notice">Class beats type</p>
+      <p id="important" class="notice" style="color: rgb(1, 2, 3)">Important beats inline</p>
+      <p id="inline" style="color: #0a0b0c; font-weight: 300">Inline</p>
+      <div id="hidden" style="visibility: hidden"><span id="hiddenChild" class="inline-block">child</span></div>
+      <div class="wide" id="wide"><strong id="strong">strong</strong> <a id="link" href="/">link</a></div>
+      <ul><li id="item">item</li></ul>
+      <div id="gone" class="gone"><span id="goneChild">gone</span></div>
+      <div id="faded" class="faded"><span id="fadedChild">faded</span></div>
+    </body>
+    </html>
+    """;
+
+  private final WebDriver driver = JsoupWebDriver.builder()
+    .transport(JsoupTestServer.htmlTransport(PAGE))
+    .computedStyles(true)
+    .build();
+
+  @Test
+  public void appliesRulesBySpecificityAndImportance() {
+    driver.get("http://localhost:8080/");
+
+    assertThat(cssValue("paragraph", "color")).isEqualTo("rgba(255, 0, 0, 1)");
+    assertThat(cssValue("notice", "color")).isEqualTo("rgba(0, 0, 255, 1)");
+    assertThat(cssValue("important", "color")).isEqualTo("rgba(0, 128, 0, 1)");
+    assertThat(cssValue("inline", "color")).isEqualTo("rgba(10, 11, 12, 1)");
+  }
+
+  @Test
+  public void inheritsInheritedProperties() {
+    driver.get("http://localhost:8080/");
+
+    assertThat(cssValue("inherited", "color")).isEqualTo("rgba(255, 0, 0, 1)");
+    assertThat(cssValue("inherited", "font-weight")).isEqualTo("700");
+    assertThat(cssValue("inherited", "display")).isEqualTo("inline");
+    assertThat(cssValue("hiddenChild", "visibility")).isEqualTo("hidden");
+    assertThat(cssValue("hiddenChild", "display")).isEqualTo("inline-block");
+  }
+
+  @Test
+  public void usesBrowserDefaults() {
+    driver.get("http://localhost:8080/");
+
+    assertThat(cssValue("wide", "display")).isEqualTo("flex");
+    assertThat(cssValue("item", "display")).isEqualTo("list-item");
+    assertThat(cssValue("item", "color")).isEqualTo("rgba(0, 0, 0, 1)");
+    assertThat(cssValue("item", "visibility")).isEqualTo("visible");
+    assertThat(cssValue("strong", "font-weight")).isEqualTo("700");
+    assertThat(cssValue("inline", "font-weight")).isEqualTo("300");
+    assertThat(cssValue("link", "color")).isEqualTo("rgba(0, 0, 238, 1)");
+    assertThat(driver.findElement(By.tagName("title")).getCssValue("display")).isEqualTo("none");
+  }
+
+  @Test
+  public void appliesStylesToIsDisplayed() {
+    driver.get("http://localhost:8080/");
+
+    assertThat(cssValue("gone", "display")).isEqualTo("none");
+    assertThat(driver.findElement(By.id("gone")).isDisplayed()).isFalse();
+    assertThat(driver.findElement(By.id("goneChild")).isDisplayed()).isFalse();
+    assertThat(driver.findElement(By.id("faded")).isDisplayed()).isFalse();
+    assertThat(driver.findElement(By.id("fadedChild")).isDisplayed()).isFalse();
+    assertThat(driver.findElement(By.id("hiddenChild")).isDisplayed()).isFalse();
+    assertThat(driver.findElement(By.id("paragraph")).isDisplayed()).isTrue();
+    assertThat(driver.findElement(By.tagName("title")).isDisplayed()).isFalse();
+  }
+
+  @Test
+  public void returnsEmptyValuesForOtherProperties() {
+    driver.get("http://localhost:8080/");
+
+    assertThat(cssValue("paragraph", "margin-top")).isEmpty();
+  }
+
+  @Test
+  public void returnsEmptyValuesUnlessEnabled() {
+    WebDriver defaultDriver = new JsoupWebDriver(JsoupTestServer.htmlTransport(PAGE));
+    defaultDriver.get("http://localhost:8080/");
+
+    assertThat(defaultDriver.findElement(By.id("paragraph")).getCssValue("color")).isEmpty();
+    assertThat(defaultDriver.findElement(By.id("gone")).isDisplayed()).isTrue();
+  }
+
+  private String cssValue(String id, String property) {
+    return driver.findElement(By.id(id)).getCssValue(property);
+  }
+}
@@ -0,0 +1,115 @@
+package com.asyncant.selenium.misc;
+
+import com.asyncant.selenium.JsoupTestServer;
+import com.asyncant.selenium.DocumentCache;
+import com.asyncant.selenium.JsoupWebDriver;
+import com.asyncant.selenium.transport.InProcessTransport;
+import com.asyncant.selenium.transport.TransportResponse;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DocumentCacheTest {
+  private static final String PAGE = "<title>Cached</title><input id='input' value='original'>";
+
+  private final List<String> ifNoneMatchHeaders = new ArrayList<>();
+  private final DocumentCache cache = new DocumentCache(10);
+  private boolean evictBeforeNotModified;
+
+  @Test
+  public void revalidatesWithETag() {
+    WebDriver driver = createDriver(Map.of("ETag", List.of("\"v1\"")));
+
+    driver.get("http://localhost/page");
+    driver.get("http://localhost/page");
+
+    assertThat(ifNoneMatchHeaders).containsExactly("none", "\"v1\"");
+    assertThat(driver.getTitle()).isEqualTo("Cached");
+    assertThat(cache.hits()).isEqualTo(1);
+    assertThat(cache.misses()).isEqualTo(1);
+  }
+
+  @Test
+  public void fetchesTheFullResponseIfTheEntryIsEvictedDuringRevalidation() {
+    WebDriver driver = createDriver(Map.of("ETag", List.of("\"v1\"")));
+    driver.get("http://localhost/page");
+
+    evictBeforeNotModified = true;
+    driver.get("http://localhost/page");
+
+    assertThat(ifNoneMatchHeaders).containsExactly("none", "\"v1\"", "none");
+    assertThat(driver.getTitle()).isEqualTo("Cached");
+    assertThat(cache.size()).isEqualTo(1);
+  }
+
+  @Test
+  public void servesFreshEntriesWithoutRequest() {
+    WebDriver driver = createDriver(Map.of("Cache-Control", List.of("max-age=60")));
+
+    driver.get("http://localhost/page");
+    driver.get("http://localhost/page");
+
+    assertThat(ifNoneMatchHeaders).hasSize(1);
+    assertThat(driver.getTitle()).isEqualTo("Cached");
+    assertThat(cache.hits()).isEqualTo(1);
+  }
+
+  @Test
+  public void doesNotCacheNoStore() {
+    WebDriver driver = createDriver(Map.of("Cache-Control", List.of("no-store"), "ETag", List.of("\"v1\"")));
+
+    driver.get("http://localhost/page");
+    driver.get("http://localhost/page");
+
+    assertThat(ifNoneMatchHeaders).containsExactly("none", "none");
+    assertThat(cache.size()).isZero();
+    assertThat(cache.misses()).isEqualTo(2);
+  }
+
+  @Test
+  public void changesToPageDoNotAffectCache() {
+    WebDriver driver = createDriver(Map.of("Cache-Control", List.of("max-age=60")));
+
+    driver.get("http://localhost/page");
+    driver.findElement(By.id("input")).sendKeys(" changed");
+    driver.get("http://localhost/page");
+
+    assertThat(driver.findElement(By.id("input")).getDomProperty("value")).isEqualTo("original");
+  }
+
+  @Test
+  public void driversSharingCacheKeepTheirOwnChanges() {
+    WebDriver first = createDriver(Map.of("Cache-Control", List.of("max-age=60")));
+    WebDriver second = createDriver(Map.of("Cache-Control", List.of("max-age=60")));
+
+    first.get("http://localhost/page");
+    second.get("http://localhost/page");
+    first.findElement(By.id("input")).sendKeys(" changed");
+
+    assertThat(first.findElement(By.id("input")).getDomProperty("value")).isEqualTo("original changed");
+    assertThat(second.findElement(By.id("input")).getDomProperty("value")).isEqualTo("original");
+    assertThat(first.getPageSource()).doesNotContain("changed");
+  }
+
+  private WebDriver createDriver(Map<String, List<String>> cacheHeaders) {
+    var transport = new InProcessTransport().registerTransport("/", request -> {
+      String ifNoneMatch = request.header("If-None-Match");
+      ifNoneMatchHeaders.add(ifNoneMatch == null ? "none" : ifNoneMatch);
+      if (ifNoneMatch != null && cacheHeaders.containsKey("ETag")) {
+        if (evictBeforeNotModified) cache.clear();
+        return new TransportResponse(304, request.uri(), cacheHeaders, new ByteArrayInputStream(new byte[0]));
+      }
+
+      return JsoupTestServer.htmlResponse(request, PAGE, cacheHeaders);
+    });
+    return JsoupWebDriver.builder().transport(transport).documentCache(cache).build();
+  }
+}
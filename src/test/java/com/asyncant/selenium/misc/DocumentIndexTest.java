@@ -0,0 +1,72 @@
+package com.asyncant.selenium.misc;
+
+import com.asyncant.selenium.JsoupTestServer;
+import com.asyncant.selenium.JsoupWebDriver;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.openqa.selenium.By;
+import org.openqa.selenium.Pages;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that indexed lookups from the root find the same elements as evaluating the locator from the html element.
+ */
+public class DocumentIndexTest {
+  private final Pages pages = JsoupTestServer.pages();
+  private final WebDriver driver = JsoupTestServer.inProcessDriver();
+
+  static List<By> locators() {
+    return List.of(
+      By.id("working"), By.id("WORKING"), By.id("missing"),
+      By.name("snack"), By.name("SNACK"), By.name("missing"),
+      By.tagName("input"), By.tagName("INPUT"), By.tagName("missing"),
+      By.className("gromit"), By.className("GROMIT"), By.className("missing"));
+  }
+
+  @ParameterizedTest
+  @MethodSource("locators")
+  public void findsTheSameElementsAsEvaluating(By locator) {
+    driver.get(pages.formPage);
+    List<WebElement> expected = driver.findElement(By.tagName("html")).findElements(locator);
+
+    assertThat(driver.findElements(locator)).containsExactlyElementsOf(expected);
+  }
+
+  static List<By> nameLocators() {
+    return List.of(
+      By.name("fish"), By.name("'fish'"), By.name("\"FISH\""), By.name(" Fish "), By.name("'fish"),
+      By.name("i"), By.name("İ"), By.name("ǆ"), By.name("ß"), By.name("SS"));
+  }
+
+  @ParameterizedTest
+  @MethodSource("nameLocators")
+  public void findsTheSameNamesAsEvaluating(By locator) {
+    var namesDriver = new JsoupWebDriver(JsoupTestServer.htmlTransport("""
+      <input name="fish"><input name=" Fish "><input name="'fish'"><input name="FISH">
+      <input name="i"><input name="I"><input name="İ"><input name="ǅ"><input name="ß"><input name="ss">"""));
+    namesDriver.get("http://localhost:8080/");
+    List<WebElement> expected = namesDriver.findElement(By.tagName("html")).findElements(locator);
+
+    assertThat(namesDriver.findElements(locator)).containsExactlyElementsOf(expected);
+  }
+
+  static List<By> linkLocators() {
+    return List.of(
+      By.linkText("click me"), By.linkText("Click me"), By.linkText("click"),
+      By.partialLinkText("window"), By.partialLinkText("="), By.partialLinkText("missing"));
+  }
+
+  @ParameterizedTest
+  @MethodSource("linkLocators")
+  public void findsTheSameLinksAsEvaluating(By locator) {
+    driver.get(pages.xhtmlTestPage);
+    List<WebElement> expected = driver.findElement(By.tagName("html")).findElements(locator);
+
+    assertThat(driver.findElements(locator)).containsExactlyElementsOf(expected);
+  }
+}
@@ -0,0 +1,41 @@
+package com.asyncant.selenium.misc;
+
+import com.asyncant.selenium.JsoupTestServer;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.Pages;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ElementWrapperTest {
+  private final Pages pages = JsoupTestServer.pages();
+  private final WebDriver driver = JsoupTestServer.inProcessDriver();
+
+  @Test
+  public void returnsTheSameWrapperForAnElement() {
+    driver.get(pages.formPage);
+    List<WebElement> all = driver.findElements(By.cssSelector("*"));
+    List<WebElement> again = driver.findElements(By.xpath("//*"));
+
+    assertThat(all).hasSizeGreaterThan(50);
+    for (int i = 0; i < all.size(); i++) assertThat(again.get(i)).isSameAs(all.get(i));
+    assertThat(driver.findElement(By.id("email"))).isSameAs(driver.findElements(By.tagName("input")).getFirst());
+  }
+
+  @Test
+  public void returnsMutableLists() {
+    driver.get(pages.formPage);
+    List<WebElement> inputs = driver.findElements(By.tagName("input"));
+    int size = inputs.size();
+
+    WebElement first = inputs.removeFirst();
+    inputs.add(first);
+
+    assertThat(inputs).hasSize(size).endsWith(first);
+    assertThat(driver.findElements(By.tagName("input"))).hasSize(size).startsWith(first);
+  }
+}
@@ -0,0 +1,65 @@
+package com.asyncant.selenium.misc;
+
+import com.asyncant.selenium.JsoupTestServer;
+import com.asyncant.selenium.JsoupWebDriver;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.InvalidSelectorException;
+import org.openqa.selenium.Pages;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class FindAllTest {
+  private final Pages pages = JsoupTestServer.pages();
+  private final JsoupWebDriver driver = JsoupTestServer.inProcessDriver();
+
+  @Test
+  public void findsTheSameElementsAsSeparateSearches() {
+    driver.get(pages.formPage);
+    Map<String, By> locators = new LinkedHashMap<>();
+    locators.put("email", By.id("email"));
+    locators.put("snacks", By.name("snack"));
+    locators.put("checkboxes", By.cssSelector("input[type=checkbox]"));
+    locators.put("forms", By.xpath("//form"));
+    locators.put("firstInputs", By.xpath("body/form/input[1]"));
+    locators.put("parents", By.xpath("//input[@id='email']/.."));
+    locators.put("missing", By.cssSelector("#missing"));
+    locators.put("links", By.partialLinkText("e"));
+
+    var results = driver.findAll(locators);
+
+    assertThat(results).containsOnlyKeys(locators.keySet());
+    assertThat(results.keySet()).containsExactlyElementsOf(locators.keySet());
+    locators.forEach((key, locator) ->
+      assertThat(results.get(key)).as(key).containsExactlyElementsOf(driver.findElements(locator)));
+    assertThat(results.get("snacks")).hasSize(5);
+    assertThat(results.get("missing")).isEmpty();
+  }
+
+  @Test
+  public void returnsMutableLists() {
+    driver.get(pages.formPage);
+    Map<String, By> locators = new LinkedHashMap<>();
+    locators.put("indexed", By.id("email"));
+    locators.put("traversed", By.cssSelector("#missing"));
+    locators.put("xpath", By.xpath("//missing"));
+    locators.put("emptyName", By.name(""));
+
+    driver.findAll(locators).forEach((key, elements) -> {
+      elements.add(driver.findElement(By.id("email")));
+      assertThat(elements).as(key).isNotEmpty();
+    });
+  }
+
+  @Test
+  public void rejectsInvalidLocators() {
+    driver.get(pages.formPage);
+
+    assertThatThrownBy(() -> driver.findAll(Map.of("invalid", By.cssSelector("input["))))
+      .isInstanceOf(InvalidSelectorException.class);
+  }
+}
@@ -0,0 +1,109 @@
+package com.asyncant.selenium.misc;
+
+import com.asyncant.selenium.JsoupTestServer;
+import com.asyncant.selenium.JsoupWebDriver;
+import com.asyncant.selenium.transport.TransportRequest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FormSubmissionTest {
+  private static final String PAGE = """
+    <!DOCTYPE html>
+    <html>
+    <head><title>Forms</title></head>
+    <body>
+      <form id="urlencoded" action="/submit" method="post">
+        <input name="text" value="a b&c=d/é😀*.-_">
+        <input name="typed">
+        <input name="disabled" value="x" disabled>
+        <input value="unnamed">
+        <input type="checkbox" name="checked" checked>
+        <input type="checkbox" name="unchecked" value="no">
+        <select name="select"><option value="1">One</option><option value="2" selected>Two</option></select>
+        <textarea name="area">some text</textarea>
+        <input type="button" name="button" value="ignored">
+        <input type="submit" id="submitUrlencoded" name="go" value="Go">
+      </form>
+      <form id="get" action="/submit?existing=1">
+        <input name="q" value="jsoup driver">
+        <input type="submit" id="submitGet">
+      </form>
+      <form id="multipart" action="/submit" method="post" enctype="multipart/form-data">
+        <input name="name" value="value">
+        <input type="file" name="upload">
+        <input type="submit" id="submitMultipart">
+      </form>
+    </body>
+    </html>
+    """;
+
+  private final AtomicReference<TransportRequest> submitted = new AtomicReference<>();
+  private final WebDriver driver = new JsoupWebDriver(JsoupTestServer.htmlTransport(PAGE)
+    .registerTransport("/submit", request -> {
+      submitted.set(request);
+      return JsoupTestServer.htmlResponse(request, "<title>Submitted</title>");
+    }));
+
+  @Test
+  public void encodesTheCurrentValuesLikeUrlEncoder() {
+    driver.get("http://localhost:8080/");
+    driver.findElement(By.name("typed")).sendKeys("typed value");
+    driver.findElement(By.name("checked")).click();
+    driver.findElement(By.name("unchecked")).click();
+
+    driver.findElement(By.id("submitUrlencoded")).click();
+
+    assertThat(driver.getTitle()).isEqualTo("Submitted");
+    assertThat(submitted.get().header("Content-Type")).isEqualTo("application/x-www-form-urlencoded; charset=UTF-8");
+    assertThat(new String(submitted.get().body(), UTF_8)).isEqualTo(
+      "text=" + URLEncoder.encode("a b&c=d/é😀*.-_", UTF_8) + "&typed=typed+value&unchecked=no&select=2"
+        + "&area=some+text&go=Go");
+  }
+
+  @Test
+  public void readsChangedValuesOnEverySubmission() {
+    driver.get("http://localhost:8080/");
+    driver.findElement(By.id("submitGet")).click();
+    assertThat(submitted.get().uri()).hasToString("http://localhost:8080/submit?existing=1&q=jsoup+driver");
+
+    driver.get("http://localhost:8080/");
+    driver.findElement(By.name("q")).clear();
+    driver.findElement(By.name("q")).sendKeys("changed");
+    driver.findElement(By.id("submitGet")).click();
+
+    assertThat(submitted.get().uri()).hasToString("http://localhost:8080/submit?existing=1&q=changed");
+  }
+
+  @Test
+  public void sendsMultipartFormsWithFiles(@TempDir Path directory) throws IOException {
+    Path file = Files.writeString(directory.resolve("upload.txt"), "file content");
+    driver.get("http://localhost:8080/");
+    driver.findElement(By.name("upload")).sendKeys(file.toString());
+
+    driver.findElement(By.id("submitMultipart")).click();
+
+    String contentType = submitted.get().header("Content-Type");
+    assertThat(contentType).startsWith("multipart/form-data; boundary=");
+    String boundary = contentType.substring("multipart/form-data; boundary=".length());
+    assertThat(new String(submitted.get().body(), UTF_8)).isEqualTo(
+      "--" + boundary + "\r\n"
+        + "Content-Disposition: form-data; name=\"name\"\r\n\r\n"
+        + "value\r\n"
+        + "--" + boundary + "\r\n"
+        + "Content-Disposition: form-data; name=\"upload\"; filename=\"upload.txt\"\r\n"
+        + "Content-Type: application/octet-stream\r\n\r\n"
+        + "file content\r\n"
+        + "--" + boundary + "--\r\n");
+  }
+}
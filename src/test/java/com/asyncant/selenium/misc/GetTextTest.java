@@ -0,0 +1,83 @@
+package com.asyncant.selenium.misc;
+
+import com.asyncant.selenium.JsoupTestServer;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.openqa.selenium.By;
+import org.openqa.selenium.Pages;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GetTextTest {
+  private final Pages pages = JsoupTestServer.pages();
+  private final WebDriver driver = JsoupTestServer.inProcessDriver();
+
+  /**
+   * Compares the text of every element with trimming and replacing characters in the whole text of the element.
+   */
+  @ParameterizedTest
+  @ValueSource(strings = {"simpleTest.html", "xhtmlTest.html", "formPage.html", "unicode_ltr.html", "tables.html"})
+  public void returnsTheTrimmedWholeText(String page) throws IOException {
+    Document document;
+    try (InputStream stream = getClass().getResourceAsStream("/org/openqa/selenium/" + page)) {
+      document = Jsoup.parse(stream, null, "http://localhost:8080/" + page);
+    }
+    driver.get("http://localhost:8080/" + page);
+    List<WebElement> elements = driver.findElements(By.cssSelector("*"));
+    // The document itself isn't an element of the page.
+    List<Element> all = document.select("*");
+    List<Element> expected = all.subList(1, all.size());
+
+    assertThat(elements).hasSameSizeAs(expected);
+    for (int i = 0; i < elements.size(); i++) {
+      var element = expected.get(i);
+      String text = element.nameIs("pre")
+        ? element.wholeText()
+        : element.wholeText().trim().replace('\u00A0', ' ').replace("\u200E", "");
+      assertThat(elements.get(i).getText()).isEqualTo(text);
+    }
+  }
+
+  @Test
+  public void returnsTheSameTextAgain() {
+    driver.get(pages.simpleTestPage);
+    WebElement body = driver.findElement(By.tagName("body"));
+
+    assertThat(body.getText()).isSameAs(body.getText());
+  }
+
+  @Test
+  public void includesChangedTextOfDescendants() {
+    driver.get(pages.contentEditablePage);
+    WebElement body = driver.findElement(By.tagName("body"));
+    WebElement editable = driver.findElement(By.id("editable"));
+    assertThat(body.getText()).isEqualTo("Why hello");
+
+    editable.sendKeys(" world");
+
+    assertThat(editable.getText()).isEqualTo("Why hello world");
+    assertThat(body.getText()).isEqualTo("Why hello world");
+  }
+
+  @Test
+  public void returnsNoTextForClearedTextareas() {
+    driver.get(pages.formPage);
+    WebElement textarea = driver.findElement(By.id("withText"));
+    assertThat(textarea.getText()).isEqualTo("Example text");
+
+    textarea.clear();
+
+    assertThat(textarea.getText()).isEmpty();
+    assertThat(textarea.getDomProperty("value")).isEmpty();
+  }
+}
@@ -0,0 +1,66 @@
+package com.asyncant.selenium.misc;
+
+import com.asyncant.selenium.JsoupWebDriver;
+import com.asyncant.selenium.transport.HttpClientTransport;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.openqa.selenium.By;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.zip.GZIPOutputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HttpClientTransportTest {
+  private HttpServer server;
+  private HttpClientTransport transport;
+
+  @BeforeEach
+  public void startServer() throws IOException {
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.createContext("/", exchange -> {
+      String encoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+      byte[] body = ("<p id='agent'>" + exchange.getRequestHeaders().getFirst("User-Agent") + "</p>"
+        + "<p id='encoding'>" + encoding + "</p>").getBytes(UTF_8);
+      if ("gzip".equals(encoding)) {
+        var compressed = new ByteArrayOutputStream();
+        try (var gzip = new GZIPOutputStream(compressed)) {
+          gzip.write(body);
+        }
+        body = compressed.toByteArray();
+        exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+      }
+      exchange.getResponseHeaders().add("Content-Type", "text/html;charset=UTF-8");
+      exchange.sendResponseHeaders(200, body.length);
+      try (var out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    });
+    server.start();
+  }
+
+  @AfterEach
+  public void stopServer() {
+    transport.close();
+    server.stop(0);
+  }
+
+  @ParameterizedTest
+  @ValueSource(booleans = {true, false})
+  public void requestsAndDecodesGzipLikeABrowser(boolean streaming) {
+    transport = new HttpClientTransport(streaming);
+    var driver = new JsoupWebDriver(transport);
+
+    driver.get("http://localhost:" + server.getAddress().getPort() + "/");
+
+    assertThat(driver.findElement(By.id("encoding")).getText()).isEqualTo("gzip");
+    assertThat(driver.findElement(By.id("agent")).getText()).startsWith("Mozilla/5.0");
+  }
+}
@@ -0,0 +1,76 @@
+package com.asyncant.selenium.misc;
+
+import com.asyncant.selenium.DomainHelper;
+import com.asyncant.selenium.JsoupTestServer;
+import com.asyncant.selenium.JsoupWebDriver;
+import com.asyncant.selenium.transport.InProcessTransport;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.Pages;
+import org.openqa.selenium.WebDriver;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InProcessTransportTest {
+  private final Pages pages = JsoupTestServer.pages();
+  private final DomainHelper domainHelper = new DomainHelper();
+
+  @Test
+  public void servesPagesWithoutServer() {
+    WebDriver driver = JsoupTestServer.inProcessDriver();
+
+    driver.get(pages.simpleTestPage);
+
+    assertThat(driver.getTitle()).isEqualTo("Hello WebDriver");
+  }
+
+  @Test
+  public void followsRedirects() {
+    WebDriver driver = JsoupTestServer.inProcessDriver();
+
+    driver.get(pages.redirectPage);
+
+    assertThat(driver.getTitle()).isEqualTo("We Arrive Here");
+  }
+
+  @Test
+  public void keepsCookies() {
+    WebDriver driver = JsoupTestServer.inProcessDriver();
+
+    driver.get(domainHelper.getUrlForFirstValidHostname("/common/cookie?action=add&name=fish&value=cod"));
+    driver.get(domainHelper.getUrlForFirstValidHostname("/common/animals"));
+
+    assertThat(driver.manage().getCookieNamed("fish")).extracting(Cookie::getValue).isEqualTo("cod");
+  }
+
+  @Test
+  public void sendsCookiesToTransportHandler() {
+    WebDriver driver = new JsoupWebDriver(JsoupTestServer.inProcessTransport()
+      .registerTransport("/echo", request -> JsoupTestServer.htmlResponse(request,
+        "<p id='cookie'>" + request.header("Cookie") + "</p>")));
+
+    driver.get(domainHelper.getUrlForFirstValidHostname("/simpleTest.html"));
+    driver.manage().addCookie(new Cookie("fish", "cod"));
+    driver.get(domainHelper.getUrlForFirstValidHostname("/echo"));
+
+    assertThat(driver.findElement(By.id("cookie")).getText()).isEqualTo("fish=cod");
+  }
+
+  @Test
+  public void handsHandlersTheRequestLineAndHost() {
+    WebDriver driver = new JsoupWebDriver(new InProcessTransport().register("/echo", exchange -> {
+      byte[] body = ("<p id='uri'>" + exchange.getRequestURI() + "</p><p id='host'>"
+        + exchange.getRequestHeaders().getFirst("Host") + "</p>").getBytes(UTF_8);
+      exchange.getResponseHeaders().add("Content-Type", "text/html");
+      exchange.sendResponseHeaders(200, body.length);
+      exchange.getResponseBody().write(body);
+    }));
+
+    driver.get(domainHelper.getUrlForFirstValidHostname("/echo?fish=cod%20fillet"));
+
+    assertThat(driver.findElement(By.id("uri")).getText()).isEqualTo("/echo?fish=cod%20fillet");
+    assertThat(driver.findElement(By.id("host")).getText()).isEqualTo("first.asyncant.localhost:8080");
+  }
+}
@@ -0,0 +1,106 @@
+package com.asyncant.selenium.misc;
+
+import com.asyncant.selenium.DocumentCache;
+import com.asyncant.selenium.DomainHelper;
+import com.asyncant.selenium.JsoupTestServer;
+import com.asyncant.selenium.JsoupWebDriver;
+import com.asyncant.selenium.JsoupWebDriverPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.Pages;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class JsoupWebDriverPoolTest {
+  private final Pages pages = JsoupTestServer.pages();
+  private final DomainHelper domainHelper = new DomainHelper();
+  private final JsoupWebDriverPool pool = new JsoupWebDriverPool(2,
+    JsoupWebDriver.builder().transport(JsoupTestServer.inProcessTransport()));
+
+  @AfterEach
+  public void closePool() {
+    pool.close();
+  }
+
+  @Test
+  public void isolatesBorrowers() throws Exception {
+    var first = pool.borrow();
+    var second = pool.borrow();
+
+    first.get(domainHelper.getUrlForFirstValidHostname("/common/cookie?action=add&name=fish&value=cod"));
+    second.get(pages.formPage);
+
+    assertThat(first).isNotSameAs(second);
+    assertThat(first.manage().getCookieNamed("fish")).extracting(Cookie::getValue).isEqualTo("cod");
+    assertThat(second.manage().getCookieNamed("fish")).isNull();
+    assertThat(second.findElements(By.id("email"))).hasSize(1);
+  }
+
+  @Test
+  public void resetsReturnedDrivers() throws Exception {
+    var driver = pool.borrow();
+    driver.get(domainHelper.getUrlForFirstValidHostname("/common/cookie?action=add&name=fish&value=cod"));
+    pool.release(driver);
+
+    var again = pool.borrow();
+
+    assertThat(again).isSameAs(driver);
+    assertThat(again.manage().getCookies()).isEmpty();
+    assertThat(again.getCurrentUrl()).isEqualTo("about:blank");
+  }
+
+  @Test
+  public void waitsForAvailableDrivers() throws Exception {
+    pool.borrow();
+    var driver = pool.borrow();
+
+    assertThatThrownBy(() -> pool.borrow(Duration.ofMillis(10))).isInstanceOf(TimeoutException.class);
+    pool.release(driver);
+    assertThat(pool.borrow(Duration.ofMillis(10))).isSameAs(driver);
+  }
+
+  @Test
+  public void rejectsDocumentCaches() {
+    var builder = JsoupWebDriver.builder()
+      .transport(JsoupTestServer.inProcessTransport())
+      .documentCache(new DocumentCache(10));
+
+    assertThatThrownBy(() -> new JsoupWebDriverPool(2, builder)).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void rejectsForeignDrivers() {
+    assertThatThrownBy(() -> pool.release(new JsoupWebDriver())).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void servesParallelBorrowers() throws Exception {
+    try (var executor = Executors.newFixedThreadPool(8)) {
+      List<Future<String>> titles = new ArrayList<>();
+      for (int i = 0; i < 32; i++) {
+        titles.add(executor.submit((Callable<String>) () -> {
+          var driver = pool.borrow();
+          try {
+            driver.get(pages.simpleTestPage);
+            return driver.getTitle();
+          } finally {
+            pool.release(driver);
+          }
+        }));
+      }
+
+      for (Future<String> title : titles) assertThat(title.get()).isEqualTo("Hello WebDriver");
+    }
+  }
+}
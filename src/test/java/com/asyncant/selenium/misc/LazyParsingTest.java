@@ -0,0 +1,45 @@
+package com.asyncant.selenium.misc;
+
+import com.asyncant.selenium.JsoupTestServer;
+import com.asyncant.selenium.JsoupWebDriver;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.Pages;
+import org.openqa.selenium.WebDriver;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LazyParsingTest {
+  private final Pages pages = JsoupTestServer.pages();
+  private final WebDriver driver = JsoupWebDriver.builder()
+    .transport(JsoupTestServer.inProcessTransport())
+    .lazyParsing(true)
+    .build();
+
+  @Test
+  public void returnsSourceAsReceivedBeforeParsing() throws IOException {
+    driver.get(pages.redirectPage);
+
+    assertThat(driver.getCurrentUrl()).isEqualTo(pages.whereIs("resultPage.html"));
+    assertThat(driver.getPageSource()).isEqualTo(readResource("resultPage.html"));
+  }
+
+  @Test
+  public void parsesWhenQueried() {
+    driver.get(pages.whereIs("resultPage.html"));
+
+    assertThat(driver.getTitle()).isEqualTo("We Arrive Here");
+    assertThat(driver.findElements(By.tagName("p"))).isNotEmpty();
+    assertThat(driver.getPageSource()).contains("<title>We Arrive Here</title>");
+  }
+
+  private String readResource(String name) throws IOException {
+    try (InputStream stream = getClass().getResourceAsStream("/org/openqa/selenium/" + name)) {
+      return new String(stream.readAllBytes(), US_ASCII);
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package com.asyncant.selenium.misc;
+
+import com.asyncant.selenium.JsoupTestServer;
+import com.asyncant.selenium.JsoupWebDriver;
+import com.asyncant.selenium.PageRetention;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.Pages;
+import org.openqa.selenium.StaleElementReferenceException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PageRetentionTest {
+  private final Pages pages = JsoupTestServer.pages();
+
+  @Test
+  public void keepsOldPagesByDefault() {
+    var driver = JsoupTestServer.inProcessDriver();
+    driver.get(pages.xhtmlTestPage);
+    var title = driver.findElement(By.tagName("title"));
+
+    driver.get(pages.formPage);
+
+    assertThat(title.getText()).isEqualTo("XHTML Test Page");
+  }
+
+  @Test
+  public void keepsSoftlyRetainedPagesWhileThereIsMemory() {
+    var driver = driver(PageRetention.SOFT);
+    driver.get(pages.xhtmlTestPage);
+    var title = driver.findElement(By.tagName("title"));
+
+    driver.get(pages.formPage);
+
+    assertThat(title.getText()).isEqualTo("XHTML Test Page");
+  }
+
+  @Test
+  public void makesElementsStaleWhenOldPagesAreReleased() {
+    var driver = driver(PageRetention.WEAK);
+    driver.get(pages.xhtmlTestPage);
+    var title = driver.findElement(By.tagName("title"));
+    var links = driver.findElements(By.tagName("a"));
+
+    driver.get(pages.formPage);
+
+    assertThatThrownBy(title::getText).isInstanceOf(StaleElementReferenceException.class);
+    assertThatThrownBy(() -> links.getFirst().click()).isInstanceOf(StaleElementReferenceException.class);
+    assertThat(title).isEqualTo(title).isNotEqualTo(links.getFirst());
+    assertThat(driver.findElement(By.id("email")).getTagName()).isEqualTo("input");
+  }
+
+  @Test
+  public void findsElementsAgainWhenAReleasedPageIsCommitted() throws Exception {
+    var driver = driver(PageRetention.WEAK);
+    var xhtmlPage = driver.getAsync(pages.xhtmlTestPage).get();
+    var formPage = driver.getAsync(pages.formPage).get();
+    xhtmlPage.commit();
+    var title = driver.findElement(By.tagName("title"));
+
+    formPage.commit();
+    xhtmlPage.commit();
+
+    assertThatThrownBy(title::getText).isInstanceOf(StaleElementReferenceException.class);
+    assertThat(driver.findElement(By.tagName("title")).getText()).isEqualTo("XHTML Test Page");
+  }
+
+  private static JsoupWebDriver driver(PageRetention retention) {
+    return JsoupWebDriver.builder()
+      .transport(JsoupTestServer.inProcessTransport())
+      .pageRetention(retention)
+      .build();
+  }
+}
@@ -0,0 +1,128 @@
+package com.asyncant.selenium.misc;
+
+import com.asyncant.selenium.DomainHelper;
+import com.asyncant.selenium.JsoupTestServer;
+import com.asyncant.selenium.JsoupWebDriver;
+import com.asyncant.selenium.transport.InProcessTransport;
+import com.asyncant.selenium.transport.TransportRequest;
+import com.asyncant.selenium.transport.TransportResponse;
+import org.jsoup.HttpStatusException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks how the driver follows redirects and handles error statuses, independent of the transport.
+ */
+public class RedirectTest {
+  private static final String FORM = """
+    <form id="form" method="post" action="/redirect/%s"><input name="fish" value="cod"></form>""";
+
+  private final DomainHelper domainHelper = new DomainHelper();
+  private final WebDriver driver = new JsoupWebDriver(new InProcessTransport()
+    .registerTransport("/form/", request -> JsoupTestServer.htmlResponse(request,
+      FORM.formatted(request.uri().getPath().substring("/form/".length()))))
+    .registerTransport("/redirect/", request ->
+      redirect(request, Integer.parseInt(request.uri().getPath().substring("/redirect/".length())), "/echo"))
+    .registerTransport("/hops/", request -> {
+      int hops = Integer.parseInt(request.uri().getPath().substring("/hops/".length()));
+      return hops == 0 ? echo(request) : redirect(request, 302, "/hops/" + (hops - 1));
+    })
+    .registerTransport("/login", request -> new TransportResponse(302, request.uri(),
+      Map.of("Location", List.of("/echo"), "Set-Cookie", List.of("session=abc")), empty()))
+    .registerTransport("/status/", request -> new TransportResponse(
+      Integer.parseInt(request.uri().getPath().substring("/status/".length())), request.uri(),
+      Map.of("Content-Type", List.of("text/html")), new ByteArrayInputStream("<title>Error</title>".getBytes(UTF_8))))
+    .registerTransport("/echo", RedirectTest::echo));
+
+  @ParameterizedTest
+  @ValueSource(ints = {301, 302, 303})
+  public void followsRedirectsOfPostsWithGet(int status) {
+    driver.get(domainHelper.getUrlForFirstValidHostname("/form/" + status));
+
+    driver.findElement(By.id("form")).submit();
+
+    assertThat(driver.getCurrentUrl()).isEqualTo(domainHelper.getUrlForFirstValidHostname("/echo"));
+    assertThat(text("method")).isEqualTo("GET");
+    assertThat(text("body")).isEmpty();
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {307, 308})
+  public void keepsTheMethodAndBodyFor307And308(int status) {
+    driver.get(domainHelper.getUrlForFirstValidHostname("/form/" + status));
+
+    driver.findElement(By.id("form")).submit();
+
+    assertThat(driver.getCurrentUrl()).isEqualTo(domainHelper.getUrlForFirstValidHostname("/echo"));
+    assertThat(text("method")).isEqualTo("POST");
+    assertThat(text("body")).isEqualTo("fish=cod");
+  }
+
+  @Test
+  public void followsUpToTwentyRedirects() {
+    driver.get(domainHelper.getUrlForFirstValidHostname("/hops/20"));
+
+    assertThat(driver.getCurrentUrl()).isEqualTo(domainHelper.getUrlForFirstValidHostname("/hops/0"));
+    assertThatThrownBy(() -> driver.get(domainHelper.getUrlForFirstValidHostname("/hops/21")))
+      .hasRootCauseInstanceOf(IOException.class)
+      .hasMessageContaining("Too many redirects");
+  }
+
+  @Test
+  public void keepsCookiesSetByRedirects() {
+    driver.get(domainHelper.getUrlForFirstValidHostname("/login"));
+
+    assertThat(text("cookie")).isEqualTo("session=abc");
+    assertThat(driver.manage().getCookieNamed("session")).isNotNull();
+  }
+
+  @Test
+  public void showsErrorPagesOnNavigation() {
+    driver.get(domainHelper.getUrlForFirstValidHostname("/status/404"));
+
+    assertThat(driver.getTitle()).isEqualTo("Error");
+  }
+
+  @Test
+  public void failsFormSubmissionsWithErrorStatuses() {
+    driver.get(domainHelper.getUrlForFirstValidHostname("/form/500"));
+    var form = driver.findElement(By.id("form"));
+
+    assertThatThrownBy(form::submit).hasCauseInstanceOf(HttpStatusException.class);
+  }
+
+  private String text(String id) {
+    return driver.findElement(By.id(id)).getText();
+  }
+
+  private static TransportResponse redirect(TransportRequest request, int status, String location) {
+    if (status < 300 || status >= 400) {
+      return new TransportResponse(status, request.uri(), Map.of(), empty());
+    }
+    return new TransportResponse(status, request.uri(), Map.of("Location", List.of(location)), empty());
+  }
+
+  private static TransportResponse echo(TransportRequest request) {
+    var body = request.body();
+    var cookie = request.header("Cookie");
+    return JsoupTestServer.htmlResponse(request, "<p id='method'>" + request.method() + "</p>"
+      + "<p id='body'>" + (body == null ? "" : new String(body, UTF_8)) + "</p>"
+      + "<p id='cookie'>" + (cookie == null ? "" : cookie) + "</p>");
+  }
+
+  private static ByteArrayInputStream empty() {
+    return new ByteArrayInputStream(new byte[0]);
+  }
+}
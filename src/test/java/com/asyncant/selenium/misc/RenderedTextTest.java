@@ -0,0 +1,90 @@
+package com.asyncant.selenium.misc;
+
+import com.asyncant.selenium.JsoupTestServer;
+import com.asyncant.selenium.JsoupWebDriver;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RenderedTextTest {
+  private static final String PAGE = """
+    <!DOCTYPE html>
+    <html>
+    <head><title>Rendered text</title><style>p { color: red }</style></head>
+    <body>
+      <div id="blocks">
+        <h1>Title</h1>
+        <p>First   paragraph,
+          <b>bold</b> and&nbsp;&nbsp;spaced</p>
+        <p>Line<br>break</p>
+        <script>var hidden = true;</script>
+      </div>
+      <div id="hidden">
+        Shown
+        <span hidden>attribute</span>
+        <span aria-hidden="true">aria</span>
+        <span style="color: red; display : NONE">display</span>
+        <span style="visibility: hidden !important">visibility</span>
+        <noscript>noscript</noscript>
+        <template>template</template>
+      </div>
+      <div id="inline">One <div style="display: inline">two</div> <span style="display: block">three</span></div>
+      <pre id="pre">  keeps
+        whitespace </pre>
+      <table id="table"><tr><td>a</td><td>b</td></tr><tr><th>c</th><td>d</td></tr></table>
+      <p id="invisible" style="display: none">Invisible</p>
+    </body>
+    </html>
+    """;
+
+  private final WebDriver driver = JsoupWebDriver.builder()
+    .transport(JsoupTestServer.htmlTransport(PAGE))
+    .renderedText(true)
+    .build();
+
+  @Test
+  public void collapsesWhitespaceAndBreaksLinesAtBlocks() {
+    driver.get("http://localhost:8080/");
+
+    assertThat(driver.findElement(By.id("blocks")).getText())
+      .isEqualTo("Title\nFirst paragraph, bold and  spaced\nLine\nbreak");
+  }
+
+  @Test
+  public void leavesOutHiddenElements() {
+    driver.get("http://localhost:8080/");
+
+    assertThat(driver.findElement(By.id("hidden")).getText()).isEqualTo("Shown");
+    assertThat(driver.findElement(By.id("invisible")).getText()).isEmpty();
+  }
+
+  @Test
+  public void usesTheDisplayOfTheStyleAttribute() {
+    driver.get("http://localhost:8080/");
+
+    assertThat(driver.findElement(By.id("inline")).getText()).isEqualTo("One two\nthree");
+  }
+
+  @Test
+  public void keepsWhitespaceOfPreformattedElements() {
+    driver.get("http://localhost:8080/");
+
+    assertThat(driver.findElement(By.id("pre")).getText()).isEqualTo("keeps\n    whitespace");
+  }
+
+  @Test
+  public void separatesTableCellsAndRows() {
+    driver.get("http://localhost:8080/");
+
+    assertThat(driver.findElement(By.id("table")).getText()).isEqualTo("a b\nc d");
+  }
+
+  @Test
+  public void leavesOutTheHead() {
+    driver.get("http://localhost:8080/");
+
+    assertThat(driver.findElement(By.tagName("html")).getText()).startsWith("Title\nFirst paragraph");
+  }
+}
@@ -0,0 +1,67 @@
+package com.asyncant.selenium.misc;
+
+import com.asyncant.selenium.JsoupTestServer;
+import com.asyncant.selenium.JsoupWebDriver;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class VisibilityTest {
+  private static final String PAGE = """
+    <!DOCTYPE html>
+    <html>
+    <head><title>Visibility</title></head>
+    <body>
+      <p id="shown">Shown <span id="shownChild">child</span></p>
+      <p id="hiddenAttribute" hidden>Hidden <span id="hiddenAttributeChild">child</span></p>
+      <input id="hiddenInput" type="hidden" value="secret">
+      <div id="displayNone" style="color: red; display: none"><span id="displayNoneChild">child</span></div>
+      <div id="invisible" style="visibility: hidden">
+        <span id="invisibleChild">child</span>
+        <span id="visibleAgain" style="visibility: visible">again</span>
+      </div>
+      <noscript id="noscript"><p>child</p></noscript>
+    </body>
+    </html>
+    """;
+
+  private final WebDriver driver = new JsoupWebDriver(JsoupTestServer.htmlTransport(PAGE));
+
+  @ParameterizedTest
+  @ValueSource(strings = {"shown", "shownChild", "visibleAgain"})
+  public void isDisplayed(String id) {
+    driver.get("http://localhost:8080/");
+
+    assertThat(driver.findElement(By.id(id)).isDisplayed()).isTrue();
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"hiddenAttribute", "hiddenAttributeChild", "hiddenInput", "displayNone", "displayNoneChild",
+    "invisible", "invisibleChild", "noscript"})
+  public void isNotDisplayed(String id) {
+    driver.get("http://localhost:8080/");
+
+    assertThat(driver.findElement(By.id(id)).isDisplayed()).isFalse();
+  }
+
+  @Test
+  public void doesNotDisplayTheHead() {
+    driver.get("http://localhost:8080/");
+
+    assertThat(driver.findElement(By.tagName("title")).isDisplayed()).isFalse();
+    assertThat(driver.findElement(By.tagName("body")).isDisplayed()).isTrue();
+  }
+
+  @Test
+  public void worksWithExpectedConditions() {
+    driver.get("http://localhost:8080/");
+
+    assertThat(ExpectedConditions.visibilityOfElementLocated(By.id("shown")).apply(driver)).isNotNull();
+    assertThat(ExpectedConditions.invisibilityOfElementLocated(By.id("displayNone")).apply(driver)).isTrue();
+  }
+}
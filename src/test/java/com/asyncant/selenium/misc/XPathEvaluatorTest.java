@@ -0,0 +1,62 @@
+package com.asyncant.selenium.misc;
+
+import com.asyncant.jsoup.select.XPathEvaluator;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the native XPath evaluator finds the same elements as evaluating the expression on the W3C DOM.
+ */
+public class XPathEvaluatorTest {
+  private final Document document = Jsoup.parse("""
+    <html><head><title>XPath</title></head><body>
+      <form id="login" name="login">
+        <input name="user" class="field"> <input name="password" type="password" class="field">
+        <button type="submit">  Log
+          in </button>
+      </form>
+      <ul><li>One</li><li class="second">Two</li><li>Three <b>and</b> more</li></ul>
+      <ul><li>Four</li></ul>
+      <div><div><p>Nested <a href="/a">first link</a></p></div><a href="/b">second link</a></div>
+      <script>var x = 1;</script>
+    </body></html>""");
+
+  @ParameterizedTest
+  @ValueSource(strings = {
+    "//input", "//input[@name='user']", "//input[@name=\"password\"][@type]", "/html/body/form",
+    "//form[@id='login']//input", "//form/input[2]", "//li[1]", "//ul/li[last()]", "//li[position()=2]",
+    "//li[@class][1]", "//*[@class='field']", "//li[text()='Two']", "//li[contains(text(),'Three')]",
+    "//li[contains(.,'and more')]", "//button[normalize-space()='Log in']", "//button[normalize-space(.)='Log in']",
+    "//a[starts-with(@href,'/')]", "//li[not(@class)]", "//li[@class or text()='One']", "//div//a", "//div/a",
+    "body/form", "./body//li", "//ul[2]/li", "//script[contains(text(),'var x')]", "//descendant::li",
+    "//ul/child::li[2]", "//li[.='Two']", "//li[@class!='second']", "//li[string()='Four']", "//DIV"})
+  public void matchesLikeTheW3cDom(String xpath) {
+    var evaluator = XPathEvaluator.compile(xpath);
+    assertThat(evaluator).isNotNull();
+
+    Element root = evaluator.isAbsolute() ? document : document.firstElementChild();
+    assertThat(root.select(evaluator)).containsExactlyElementsOf(document.selectXpath(xpath));
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"//p/..", "//a/@href", "//li/text()", "(//li)[2]", "//input[1=1]", "//descendant::li[2]",
+    "//svg:rect", "//input | //button", "", "//li[count(b)=1]", "//div[div]", "//p/node()[1]",
+    "//ul/child::node()[last()]"})
+  public void doesNotCompileUnsupportedExpressions(String xpath) {
+    assertThat(XPathEvaluator.compile(xpath)).isNull();
+  }
+
+  @Test
+  public void matchesRelativeToTheSelectRoot() {
+    var evaluator = XPathEvaluator.compile("./input[2]");
+    var form = document.getElementById("login");
+
+    assertThat(form.select(evaluator)).containsExactly(document.select("input[name=password]").first());
+  }
+}
@@ -0,0 +1,54 @@
+package com.asyncant.selenium.misc;
+
+import com.asyncant.selenium.JsoupTestServer;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.By;
+import org.openqa.selenium.InvalidSelectorException;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.Pages;
+import org.openqa.selenium.WebDriver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class XPathSearchTest {
+  private final Pages pages = JsoupTestServer.pages();
+  private final WebDriver driver = JsoupTestServer.inProcessDriver();
+
+  @Test
+  public void findsTheFirstOfAllMatches() {
+    driver.get(pages.formPage);
+
+    assertThat(driver.findElement(By.xpath("//input"))).isEqualTo(driver.findElements(By.xpath("//input")).getFirst());
+    assertThat(driver.findElement(By.xpath("//input")).getAttribute("id")).isEqualTo("email");
+  }
+
+  @Test
+  public void searchesRelativeToTheElement() {
+    driver.get(pages.formPage);
+    var form = driver.findElement(By.xpath("//form[@name='image']"));
+
+    assertThat(form.findElement(By.xpath("./input")).getAttribute("id")).isEqualTo("imageButton");
+    assertThat(form.findElements(By.xpath("./input"))).hasSize(1);
+    assertThat(driver.findElement(By.xpath("body/form")).getAttribute("name")).isEqualTo("login");
+  }
+
+  @Test
+  public void searchesFromTheElementInTheWholeDocument() {
+    driver.get(pages.formPage);
+    var input = driver.findElement(By.id("imageButton"));
+
+    assertThat(input.findElement(By.xpath("ancestor::form")).getAttribute("name")).isEqualTo("image");
+    assertThat(input.findElements(By.xpath("ancestor::body"))).hasSize(1);
+  }
+
+  @Test
+  public void ignoresNonElementMatchesAndRejectsInvalidExpressions() {
+    driver.get(pages.formPage);
+
+    assertThatThrownBy(() -> driver.findElement(By.xpath("//form/@name")))
+      .isInstanceOf(NoSuchElementException.class);
+    assertThatThrownBy(() -> driver.findElement(By.xpath("//form[")))
+      .isInstanceOf(InvalidSelectorException.class);
+  }
+}